@@ -0,0 +1,22 @@
+package be.sandervl.leaderschedule.benchmark;
+
+import be.sandervl.leaderschedule.domain.Leader;
+
+import java.util.Comparator;
+
+/**
+ * Orders leaders from easy to hard to place, for the construction heuristics that assign the hardest leaders first.
+ * A leader with more unwanted leaders has fewer groups to go to, and an experienced leader is needed in every group.
+ */
+public class LeaderDifficultyComparator implements Comparator<Leader> {
+
+    private static final Comparator<Leader> COMPARATOR =
+            Comparator.comparingInt((Leader leader) -> leader.getUnwantedLeaders() == null ? 0 : leader.getUnwantedLeaders().size())
+                    .thenComparingInt(Leader::getExperience)
+                    .thenComparing(Leader::getFullName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public int compare(Leader a, Leader b) {
+        return COMPARATOR.compare(a, b);
+    }
+}
@@ -0,0 +1,37 @@
+package be.sandervl.leaderschedule.benchmark;
+
+import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Runs every solver configuration of {@code leaderScheduleBenchmarkConfig.xml} on generated schedules
+ * and writes the HTML report to {@code target/benchmarks}.
+ * The arguments are the leader counts of the generated schedules, by default 15, 150 and 1500.
+ */
+public final class LeaderScheduleBenchmarkApp {
+
+    private static final String BENCHMARK_CONFIG = "be/sandervl/leaderschedule/benchmark/leaderScheduleBenchmarkConfig.xml";
+    private static final int[] DEFAULT_LEADER_COUNTS = {15, 150, 1500};
+    // Like the real organization: about 3 leaders per group, in chapters of 5 groups.
+    private static final int LEADERS_PER_GROUP = 3;
+    private static final long SEED = 0;
+
+    private LeaderScheduleBenchmarkApp() {
+    }
+
+    public static void main(String[] args) {
+        int[] leaderCounts = args.length == 0
+                ? DEFAULT_LEADER_COUNTS
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        LeaderScheduleSolution[] problems = Arrays.stream(leaderCounts)
+                .mapToObj(leaderCount -> SyntheticScheduleGenerator.generate(leaderCount, LEADERS_PER_GROUP, SEED))
+                .toArray(LeaderScheduleSolution[]::new);
+        File benchmarkDirectory = PlannerBenchmarkFactory.createFromXmlResource(BENCHMARK_CONFIG)
+                .buildPlannerBenchmark(problems)
+                .benchmark();
+        System.out.println("Benchmark report written to " + new File(benchmarkDirectory, "index.html").getAbsolutePath());
+    }
+}
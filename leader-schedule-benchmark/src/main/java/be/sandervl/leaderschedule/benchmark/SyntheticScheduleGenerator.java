@@ -0,0 +1,117 @@
+package be.sandervl.leaderschedule.benchmark;
+
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates reproducible schedules of any size, shaped like the real data:
+ * the organization is split into chapters of the five usual groups,
+ * and every leader only states affinities, preferences and aversions within their own chapter.
+ */
+public final class SyntheticScheduleGenerator {
+
+    private static final String[] GROUP_NAMES = {"Speelclub", "Rakkers", "Toppers", "Kerels", "Aspiranten"};
+    private static final Affinity[] CHOICES = {Affinity.HIGH, Affinity.MEDIUM, Affinity.LOW};
+
+    private SyntheticScheduleGenerator() {
+    }
+
+    /**
+     * @param leaderCount total number of leaders
+     * @param leadersPerGroup average number of leaders a group holds once every leader is assigned
+     * @param seed the random seed, the same seed always yields the same schedule
+     * @return an unsolved schedule, every {@link Group#getLeaders()} is empty
+     */
+    public static LeaderScheduleSolution generate(int leaderCount, int leadersPerGroup, long seed) {
+        var random = new Random(seed);
+        int groupCount = Math.max(1, leaderCount / leadersPerGroup);
+        int chapterCount = Math.max(1, groupCount / GROUP_NAMES.length);
+
+        List<Group> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            String name = GROUP_NAMES[i % GROUP_NAMES.length] + " " + (i / GROUP_NAMES.length + 1);
+            groups.add(new Group(name, Math.max(1, leadersPerGroup - 1), leadersPerGroup + 1));
+        }
+
+        List<Leader> leaders = new ArrayList<>(leaderCount);
+        List<List<Leader>> leadersPerChapter = new ArrayList<>(chapterCount);
+        for (int i = 0; i < chapterCount; i++) {
+            leadersPerChapter.add(new ArrayList<>());
+        }
+        for (int i = 0; i < leaderCount; i++) {
+            var leader = new Leader("Leader " + i, random.nextInt(4));
+            int chapter = i % chapterCount;
+            List<Group> chapterGroups = getChapterGroups(groups, chapter, chapterCount);
+            Map<String, Affinity> affinityMap = new HashMap<>();
+            for (Affinity choice : CHOICES) {
+                affinityMap.putIfAbsent(chapterGroups.get(random.nextInt(chapterGroups.size())).getName(), choice);
+            }
+            leader.setGroupAffinityMap(affinityMap);
+            leaders.add(leader);
+            leadersPerChapter.get(chapter).add(leader);
+        }
+        for (int i = 0; i < leaderCount; i++) {
+            Leader leader = leaders.get(i);
+            List<Leader> colleagues = leadersPerChapter.get(i % chapterCount);
+            leader.setPreferredLeaders(pickColleagues(leader, colleagues, random.nextInt(3), random));
+            leader.setUnwantedLeaders(pickColleagues(leader, colleagues, random.nextInt(2), random));
+        }
+
+        var schedule = new LeaderScheduleSolution();
+        schedule.setLeaders(leaders);
+        schedule.setGroups(groups);
+        schedule.compileProblemFacts();
+        return schedule;
+    }
+
+    /**
+     * Puts every leader of the schedule in a random group of their chapter, replacing any previous assignment.
+     */
+    public static LeaderScheduleSolution assignRandomly(LeaderScheduleSolution schedule, long seed) {
+        var random = new Random(seed);
+        List<Group> groups = schedule.getGroups();
+        int chapterCount = Math.max(1, groups.size() / GROUP_NAMES.length);
+        for (Group group : groups) {
+            group.getLeaders().clear();
+        }
+        for (int i = 0; i < schedule.getLeaders().size(); i++) {
+            Leader leader = schedule.getLeaders().get(i);
+            List<Group> chapterGroups = getChapterGroups(groups, i % chapterCount, chapterCount);
+            Group group = chapterGroups.get(random.nextInt(chapterGroups.size()));
+            group.getLeaders().add(leader);
+            leader.setGroup(group);
+        }
+        return schedule;
+    }
+
+    private static List<Group> getChapterGroups(List<Group> groups, int chapter, int chapterCount) {
+        if (chapterCount == 1) {
+            return groups;
+        }
+        int from = chapter * GROUP_NAMES.length;
+        // The last chapter takes the groups that don't fill a chapter of their own.
+        int to = chapter == chapterCount - 1 ? groups.size() : from + GROUP_NAMES.length;
+        return groups.subList(from, to);
+    }
+
+    private static Set<Leader> pickColleagues(Leader leader, List<Leader> colleagues, int count, Random random) {
+        Set<Leader> picked = new HashSet<>();
+        for (int i = 0; i < count && colleagues.size() > 1; i++) {
+            Leader colleague = colleagues.get(random.nextInt(colleagues.size()));
+            if (!colleague.equals(leader)) {
+                picked.add(colleague);
+            }
+        }
+        return picked.isEmpty() ? null : picked;
+    }
+}
@@ -0,0 +1,20 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import be.sandervl.leaderschedule.solver.IncrementalLeaderScheduleConstraintProvider;
+import be.sandervl.leaderschedule.solver.LeaderScheduleConstraintProvider;
+
+public enum ConstraintProviderType {
+    GROUP_SCAN(LeaderScheduleConstraintProvider.class),
+    INCREMENTAL(IncrementalLeaderScheduleConstraintProvider.class);
+
+    private final Class<? extends ConstraintProvider> constraintProviderClass;
+
+    ConstraintProviderType(Class<? extends ConstraintProvider> constraintProviderClass) {
+        this.constraintProviderClass = constraintProviderClass;
+    }
+
+    public Class<? extends ConstraintProvider> getConstraintProviderClass() {
+        return constraintProviderClass;
+    }
+}
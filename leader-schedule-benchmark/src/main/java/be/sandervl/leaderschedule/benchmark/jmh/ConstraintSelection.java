@@ -0,0 +1,25 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+/**
+ * The constraints that can be benchmarked on their own, or {@link #ALL} for the whole provider.
+ */
+public enum ConstraintSelection {
+    ALL(null),
+    MINIMUM_NUMBER_OF_LEADERS("minimum leaders not respected"),
+    MAXIMUM_NUMBER_OF_LEADERS("maximum leaders not respected"),
+    MAXIMIZE_GROUP_AFFINITY("Maximize group affinity"),
+    NO_UNWANTED_LEADER("unwanted leader not respected"),
+    BALANCE_EXPERIENCE("balanced experience"),
+    PREFERRED_LEADER("preferred leaders respected"),
+    AT_LEAST_EXPERIENCE("At least 1 year experience");
+
+    private final String constraintName;
+
+    ConstraintSelection(String constraintName) {
+        this.constraintName = constraintName;
+    }
+
+    public String getConstraintName() {
+        return constraintName;
+    }
+}
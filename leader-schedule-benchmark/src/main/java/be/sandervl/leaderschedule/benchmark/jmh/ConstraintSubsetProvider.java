@@ -0,0 +1,42 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+
+import java.util.Arrays;
+
+/**
+ * Exposes a single constraint of another {@link ConstraintProvider},
+ * so its score calculation speed can be measured in isolation.
+ * Both properties are set through the constraint provider custom properties of the solver config.
+ */
+public class ConstraintSubsetProvider implements ConstraintProvider {
+
+    private ConstraintProvider delegate;
+    private String constraintName;
+
+    public void setDelegateClass(String delegateClass) {
+        try {
+            this.delegate = (ConstraintProvider) Class.forName(delegateClass).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can not instantiate constraint provider (" + delegateClass + ").", e);
+        }
+    }
+
+    public void setConstraintName(String constraintName) {
+        this.constraintName = constraintName;
+    }
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        Constraint[] constraints = Arrays.stream(delegate.defineConstraints(constraintFactory))
+                .filter(constraint -> constraint.getConstraintRef().constraintName().equals(constraintName))
+                .toArray(Constraint[]::new);
+        if (constraints.length == 0) {
+            throw new IllegalStateException("The constraint provider (" + delegate.getClass().getSimpleName()
+                    + ") has no constraint named (" + constraintName + ").");
+        }
+        return constraints;
+    }
+}
@@ -0,0 +1,129 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import be.sandervl.leaderschedule.benchmark.SyntheticScheduleGenerator;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures score calculations per second, for the whole constraint provider or for a single constraint.
+ * <ul>
+ *     <li>{@link #fullScoreCalculation()} scores a complete schedule from scratch.</li>
+ *     <li>{@link #incrementalScoreCalculation()} moves one leader and rescores, like a local search step does,
+ *     so its throughput is the move evaluation speed.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ScoreCalculationBenchmark {
+
+    private static final long SEED = 37;
+    private static final int EQUIVALENCE_CHECK_COUNT = 5;
+
+    @Param({"15", "150", "1500", "15000"})
+    int leaderCount;
+
+    @Param({"3", "12"})
+    int leadersPerGroup;
+
+    @Param
+    ConstraintProviderType provider;
+
+    @Param
+    ConstraintSelection constraint;
+
+    private LeaderScheduleSolution schedule;
+    private InnerScoreDirector<LeaderScheduleSolution, ?> scoreDirector;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (provider == ConstraintProviderType.INCREMENTAL) {
+            assertSameScoreAsGroupScan();
+        }
+        schedule = SyntheticScheduleGenerator.assignRandomly(
+                SyntheticScheduleGenerator.generate(leaderCount, leadersPerGroup, SEED), SEED);
+        scoreDirector = ScoreDirectors.build(provider, constraint);
+        scoreDirector.setWorkingSolution(schedule);
+        scoreDirector.calculateScore();
+        random = new Random(SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    public Object fullScoreCalculation() {
+        scoreDirector.setWorkingSolution(schedule);
+        return scoreDirector.calculateScore();
+    }
+
+    @Benchmark
+    public Object incrementalScoreCalculation() {
+        List<Group> groups = schedule.getGroups();
+        Leader leader = schedule.getLeaders().get(random.nextInt(schedule.getLeaders().size()));
+        Group source = leader.getGroup();
+        int sourceIndex = source.getLeaders().indexOf(leader);
+        Group destination = groups.get(random.nextInt(groups.size()));
+        int destinationSize = destination == source ? destination.getLeaders().size() - 1 : destination.getLeaders().size();
+        int destinationIndex = random.nextInt(destinationSize + 1);
+
+        // The same notifications as a list change move.
+        scoreDirector.beforeListVariableChanged(source, "leaders", sourceIndex, sourceIndex + 1);
+        source.getLeaders().remove(sourceIndex);
+        scoreDirector.afterListVariableChanged(source, "leaders", sourceIndex, sourceIndex);
+        scoreDirector.beforeListVariableChanged(destination, "leaders", destinationIndex, destinationIndex);
+        destination.getLeaders().add(destinationIndex, leader);
+        scoreDirector.afterListVariableChanged(destination, "leaders", destinationIndex, destinationIndex + 1);
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+
+    /**
+     * Comparing the speed of both providers only makes sense as long as they agree,
+     * so every trial first scores a few random schedules of its size with both.
+     */
+    private void assertSameScoreAsGroupScan() {
+        try (var groupScan = ScoreDirectors.build(ConstraintProviderType.GROUP_SCAN, constraint);
+             var incremental = ScoreDirectors.build(ConstraintProviderType.INCREMENTAL, constraint)) {
+            for (int i = 0; i < EQUIVALENCE_CHECK_COUNT; i++) {
+                var randomSchedule = SyntheticScheduleGenerator.assignRandomly(
+                        SyntheticScheduleGenerator.generate(leaderCount, leadersPerGroup, SEED + i), SEED + i);
+                groupScan.setWorkingSolution(randomSchedule);
+                Object expected = groupScan.calculateScore();
+                incremental.setWorkingSolution(randomSchedule);
+                Object actual = incremental.calculateScore();
+                if (!Objects.equals(expected, actual)) {
+                    throw new IllegalStateException("The incremental constraint provider scores (" + actual
+                            + ") instead of (" + expected + ") for constraint (" + constraint
+                            + ") on random schedule (" + i + ").");
+                }
+            }
+        }
+    }
+}
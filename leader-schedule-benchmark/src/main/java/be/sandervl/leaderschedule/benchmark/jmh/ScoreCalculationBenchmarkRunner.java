@@ -0,0 +1,27 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler always on, so every result also reports the allocation rate.
+ * Accepts the usual JMH command line options, for example {@code -p leaderCount=1500 -p provider=INCREMENTAL}.
+ */
+public final class ScoreCalculationBenchmarkRunner {
+
+    private ScoreCalculationBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ScoreCalculationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
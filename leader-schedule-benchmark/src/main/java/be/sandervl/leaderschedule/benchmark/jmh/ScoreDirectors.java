@@ -0,0 +1,41 @@
+package be.sandervl.leaderschedule.benchmark.jmh;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.impl.score.director.InnerScoreDirector;
+import ai.timefold.solver.core.impl.solver.DefaultSolverFactory;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.Map;
+
+/**
+ * Builds the score directors the solver would use, without building a solver.
+ * Relies on Timefold internals, because the public API doesn't expose incremental score calculation.
+ */
+final class ScoreDirectors {
+
+    private ScoreDirectors() {
+    }
+
+    static InnerScoreDirector<LeaderScheduleSolution, ?> build(ConstraintProviderType providerType, ConstraintSelection selection) {
+        var scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        if (selection == ConstraintSelection.ALL) {
+            scoreDirectorFactoryConfig.withConstraintProviderClass(providerType.getConstraintProviderClass());
+        } else {
+            scoreDirectorFactoryConfig.withConstraintProviderClass(ConstraintSubsetProvider.class)
+                    .withConstraintProviderCustomProperties(Map.of(
+                            "delegateClass", providerType.getConstraintProviderClass().getName(),
+                            "constraintName", selection.getConstraintName()));
+        }
+        var solverConfig = new SolverConfig()
+                .withSolutionClass(LeaderScheduleSolution.class)
+                .withEntityClasses(Group.class, Leader.class)
+                .withScoreDirectorFactory(scoreDirectorFactoryConfig);
+        var solverFactory = (DefaultSolverFactory<LeaderScheduleSolution>) SolverFactory.<LeaderScheduleSolution>create(solverConfig);
+        // No constraint matches, just like during solving.
+        return solverFactory.getScoreDirectorFactory().buildScoreDirector(false, false);
+    }
+}
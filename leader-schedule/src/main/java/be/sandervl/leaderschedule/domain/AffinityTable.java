@@ -0,0 +1,89 @@
+package be.sandervl.leaderschedule.domain;
+
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link Affinity} reward of every leader for every group, compiled from {@link Leader#getGroupAffinityMap()}
+ * into one array indexed by {@link Leader#getIndex()} and {@link Group#getIndex()},
+ * so the constraints read it without hashing group names.
+ * <p>
+ * A problem fact of {@link LeaderScheduleSolution}, never changed after it is compiled, like {@link LeaderRelations}.
+ */
+public class AffinityTable {
+
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    @PlanningId
+    private final long id;
+    private final int leaderCount;
+    private final int groupCount;
+    // Row per leader, column per group. Affinity rewards fit in a byte.
+    private final byte[] rewards;
+
+    private AffinityTable(int leaderCount, int groupCount) {
+        this.id = ID_SEQUENCE.incrementAndGet();
+        this.leaderCount = leaderCount;
+        this.groupCount = groupCount;
+        this.rewards = new byte[leaderCount * groupCount];
+    }
+
+    /**
+     * Gives every group without a valid index a new one, then compiles the affinities of all leaders.
+     * Expects the leaders to be indexed already, see {@link LeaderRelations#compile(List)}.
+     */
+    public static AffinityTable compile(List<Leader> leaders, List<Group> groups) {
+        var taken = new BitSet();
+        int nextIndex = 0;
+        for (Group group : groups) {
+            if (group.getIndex() >= 0 && !taken.get(group.getIndex())) {
+                taken.set(group.getIndex());
+                nextIndex = Math.max(nextIndex, group.getIndex() + 1);
+            } else {
+                group.setIndex(-1);
+            }
+        }
+        for (Group group : groups) {
+            if (group.getIndex() < 0) {
+                group.setIndex(nextIndex++);
+            }
+        }
+        int leaderCount = leaders.stream().mapToInt(Leader::getIndex).max().orElse(-1) + 1;
+        var table = new AffinityTable(leaderCount, nextIndex);
+        for (Group group : groups) {
+            for (Leader leader : leaders) {
+                Map<String, Affinity> affinityMap = leader.getGroupAffinityMap();
+                Affinity affinity = affinityMap == null ? Affinity.NONE : affinityMap.getOrDefault(group.getName(), Affinity.NONE);
+                table.rewards[leader.getIndex() * table.groupCount + group.getIndex()] = (byte) affinity.getDurationMultiplier();
+            }
+        }
+        return table;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getLeaderCount() {
+        return leaderCount;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return the {@link Affinity#getDurationMultiplier()} of the leader for the group
+     */
+    public int getReward(int leaderIndex, int groupIndex) {
+        return rewards[leaderIndex * groupCount + groupIndex];
+    }
+
+    public long getTableBytes() {
+        return rewards.length;
+    }
+}
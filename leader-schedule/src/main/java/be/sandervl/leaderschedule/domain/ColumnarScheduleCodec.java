@@ -0,0 +1,334 @@
+package be.sandervl.leaderschedule.domain;
+
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact binary layout of a schedule, where leaders and groups are referred to by their position instead of by name.
+ * <p>
+ * After a magic number and version come the score and solver status, then the groups column by column
+ * (names, minimum and maximum leaders), the leaders column by column (names, experience),
+ * a table of the group names the affinities refer to, and packed arrays per leader of affinities
+ * (name position and {@link Affinity} ordinal), preferred and unwanted leader positions,
+ * and per group the positions of its leaders in order.
+ * Every name is written once; all counts and positions are unsigned variable length integers, other numbers zigzag encoded,
+ * and a count of 0 stands for a missing list, set or map, so it reads back as null like it does in JSON.
+ * <p>
+ * Reading trusts no count or position: negative ones are rejected, and collections are pre-sized to at most
+ * {@value #MAX_INITIAL_CAPACITY} elements, so a short input claiming a huge count fails with an {@link java.io.EOFException}
+ * instead of allocating for it.
+ * <p>
+ * The facts the constraints read are not written: call {@link LeaderScheduleSolution#compileProblemFacts()} after reading.
+ */
+public final class ColumnarScheduleCodec {
+
+    private static final int MAGIC = 0x4C534331; // "LSC1"
+    private static final int VERSION = 1;
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+    private static final int MAX_SCORE_LEVELS = 16;
+    private static final Affinity[] AFFINITIES = Affinity.values();
+    private static final SolverStatus[] SOLVER_STATUSES = SolverStatus.values();
+
+    private ColumnarScheduleCodec() {
+    }
+
+    public static void write(LeaderScheduleSolution schedule, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+        writeScore(out, schedule.getScore());
+        writeVarInt(out, schedule.getSolverStatus() == null ? 0 : schedule.getSolverStatus().ordinal() + 1);
+
+        List<Group> groups = schedule.getGroups() == null ? List.of() : schedule.getGroups();
+        List<Leader> leaders = schedule.getLeaders() == null ? List.of() : schedule.getLeaders();
+        writeVarInt(out, groups.size());
+        for (Group group : groups) {
+            out.writeUTF(group.getName());
+        }
+        for (Group group : groups) {
+            writeZigZag(out, group.getMinimumLeaders());
+        }
+        for (Group group : groups) {
+            writeZigZag(out, group.getMaximumLeaders());
+        }
+
+        Map<Leader, Integer> leaderPositions = new HashMap<>(leaders.size() * 2);
+        writeVarInt(out, leaders.size());
+        for (int i = 0; i < leaders.size(); i++) {
+            leaderPositions.putIfAbsent(leaders.get(i), i);
+            out.writeUTF(leaders.get(i).getFullName());
+        }
+        for (Leader leader : leaders) {
+            writeZigZag(out, leader.getExperience());
+        }
+
+        // Affinities name groups, which are usually but not necessarily groups of the schedule.
+        Map<String, Integer> groupNamePositions = new HashMap<>(groups.size() * 2);
+        for (int i = 0; i < groups.size(); i++) {
+            groupNamePositions.putIfAbsent(groups.get(i).getName(), i);
+        }
+        List<String> otherGroupNames = new ArrayList<>();
+        for (Leader leader : leaders) {
+            if (leader.getGroupAffinityMap() != null) {
+                for (String groupName : leader.getGroupAffinityMap().keySet()) {
+                    if (!groupNamePositions.containsKey(groupName)) {
+                        groupNamePositions.put(groupName, groups.size() + otherGroupNames.size());
+                        otherGroupNames.add(groupName);
+                    }
+                }
+            }
+        }
+        writeVarInt(out, otherGroupNames.size());
+        for (String groupName : otherGroupNames) {
+            out.writeUTF(groupName);
+        }
+        for (Leader leader : leaders) {
+            Map<String, Affinity> affinityMap = leader.getGroupAffinityMap();
+            writeVarInt(out, affinityMap == null ? 0 : affinityMap.size() + 1);
+            if (affinityMap != null) {
+                for (Map.Entry<String, Affinity> entry : affinityMap.entrySet()) {
+                    writeVarInt(out, groupNamePositions.get(entry.getKey()));
+                    writeVarInt(out, entry.getValue().ordinal());
+                }
+            }
+        }
+        for (Leader leader : leaders) {
+            writeLeaderPositions(out, leader.getPreferredLeaders(), leaderPositions);
+        }
+        for (Leader leader : leaders) {
+            writeLeaderPositions(out, leader.getUnwantedLeaders(), leaderPositions);
+        }
+        for (Group group : groups) {
+            writeLeaderPositions(out, group.getLeaders(), leaderPositions);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input isn't a schedule in this layout
+     * @throws java.io.EOFException if the input ends too soon
+     */
+    public static LeaderScheduleSolution read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("The input isn't a columnar schedule.");
+        }
+        int version = readVarInt(in);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The columnar schedule version (" + version + ") isn't supported.");
+        }
+        var schedule = new LeaderScheduleSolution();
+        schedule.setScore(readScore(in));
+        int solverStatus = readVarInt(in);
+        schedule.setSolverStatus(solverStatus == 0 ? null : readConstant(SOLVER_STATUSES, solverStatus - 1));
+
+        int groupCount = readVarInt(in);
+        List<Group> groups = new ArrayList<>(initialCapacity(groupCount));
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(new Group(in.readUTF(), 0, 0));
+        }
+        for (Group group : groups) {
+            group.setMinimumLeaders(readZigZag(in));
+        }
+        for (Group group : groups) {
+            group.setMaximumLeaders(readZigZag(in));
+        }
+
+        int leaderCount = readVarInt(in);
+        List<Leader> leaders = new ArrayList<>(initialCapacity(leaderCount));
+        for (int i = 0; i < leaderCount; i++) {
+            leaders.add(new Leader(in.readUTF(), 0));
+        }
+        for (Leader leader : leaders) {
+            leader.setExperience(readZigZag(in));
+        }
+
+        int otherGroupNameCount = readVarInt(in);
+        List<String> groupNames = new ArrayList<>(groups.size() + initialCapacity(otherGroupNameCount));
+        for (Group group : groups) {
+            groupNames.add(group.getName());
+        }
+        for (int i = 0; i < otherGroupNameCount; i++) {
+            groupNames.add(in.readUTF());
+        }
+        for (Leader leader : leaders) {
+            int affinityCount = readVarInt(in) - 1;
+            if (affinityCount < 0) {
+                leader.setGroupAffinityMap(null);
+                continue;
+            }
+            Map<String, Affinity> affinityMap = new LinkedHashMap<>(initialCapacity(affinityCount) * 2);
+            for (int i = 0; i < affinityCount; i++) {
+                String groupName = readConstant(groupNames, readVarInt(in));
+                affinityMap.put(groupName, readConstant(AFFINITIES, readVarInt(in)));
+            }
+            leader.setGroupAffinityMap(affinityMap);
+        }
+        for (Leader leader : leaders) {
+            leader.setPreferredLeaders(readLeaderSet(in, leaders));
+        }
+        for (Leader leader : leaders) {
+            leader.setUnwantedLeaders(readLeaderSet(in, leaders));
+        }
+        for (Group group : groups) {
+            int count = readVarInt(in) - 1;
+            group.setLeaders(count < 0 ? null : readLeaders(in, leaders, count, new ArrayList<>(initialCapacity(count))));
+        }
+        schedule.setGroups(groups);
+        schedule.setLeaders(leaders);
+        return schedule;
+    }
+
+    private static void writeScore(DataOutput out, BendableScore score) throws IOException {
+        if (score == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeInt(score.initScore());
+        int[] hardScores = score.hardScores();
+        int[] softScores = score.softScores();
+        writeVarInt(out, hardScores.length);
+        for (int hardScore : hardScores) {
+            out.writeInt(hardScore);
+        }
+        writeVarInt(out, softScores.length);
+        for (int softScore : softScores) {
+            out.writeInt(softScore);
+        }
+    }
+
+    private static BendableScore readScore(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int initScore = in.readInt();
+        int[] hardScores = new int[readScoreLevels(in)];
+        for (int i = 0; i < hardScores.length; i++) {
+            hardScores[i] = in.readInt();
+        }
+        int[] softScores = new int[readScoreLevels(in)];
+        for (int i = 0; i < softScores.length; i++) {
+            softScores[i] = in.readInt();
+        }
+        return initScore == 0 ? BendableScore.of(hardScores, softScores)
+                : BendableScore.ofUninitialized(initScore, hardScores, softScores);
+    }
+
+    private static int readScoreLevels(DataInput in) throws IOException {
+        int levels = readVarInt(in);
+        if (levels > MAX_SCORE_LEVELS) {
+            throw new IllegalArgumentException("The score level count (" + levels + ") is above " + MAX_SCORE_LEVELS + ".");
+        }
+        return levels;
+    }
+
+    private static void writeLeaderPositions(DataOutput out, Iterable<Leader> leaders, Map<Leader, Integer> leaderPositions)
+            throws IOException {
+        if (leaders == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        List<Integer> positions = new ArrayList<>();
+        for (Leader leader : leaders) {
+            Integer position = leaderPositions.get(leader);
+            if (position == null) {
+                throw new IllegalArgumentException("The leader (" + leader + ") is referred to, but isn't a leader of the schedule.");
+            }
+            positions.add(position);
+        }
+        writeVarInt(out, positions.size() + 1);
+        for (int position : positions) {
+            writeVarInt(out, position);
+        }
+    }
+
+    private static Set<Leader> readLeaderSet(DataInput in, List<Leader> leaders) throws IOException {
+        int count = readVarInt(in) - 1;
+        return count < 0 ? null : readLeaders(in, leaders, count, new LinkedHashSet<>(initialCapacity(count) * 2));
+    }
+
+    private static <C extends Collection<Leader>> C readLeaders(DataInput in, List<Leader> leaders, int count, C result)
+            throws IOException {
+        for (int i = 0; i < count; i++) {
+            result.add(readConstant(leaders, readVarInt(in)));
+        }
+        return result;
+    }
+
+    private static <T> T readConstant(T[] constants, int position) throws IOException {
+        if (position < 0 || position >= constants.length) {
+            throw new IllegalArgumentException("The position (" + position + ") is out of range (" + constants.length + ").");
+        }
+        return constants[position];
+    }
+
+    private static <T> T readConstant(List<T> values, int position) throws IOException {
+        if (position < 0 || position >= values.size()) {
+            throw new IllegalArgumentException("The position (" + position + ") is out of range (" + values.size() + ").");
+        }
+        return values.get(position);
+    }
+
+    // The count is read from the input, the collection grows past this as its elements are actually read.
+    private static int initialCapacity(int count) {
+        return Math.min(count, MAX_INITIAL_CAPACITY);
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("The value (" + value + ") must not be negative.");
+        }
+        writeUnsignedVarInt(out, value);
+    }
+
+    private static void writeUnsignedVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    // Maps small negative numbers to small unsigned ones: 0, -1, 1, -2, ... to 0, 1, 2, 3, ...
+    private static void writeZigZag(DataOutput out, int value) throws IOException {
+        writeUnsignedVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readZigZag(DataInput in) throws IOException {
+        int value = readUnsignedVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value doesn't fit in a non-negative int, since it is a count or position
+     */
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = readUnsignedVarInt(in);
+        if (value < 0) {
+            throw new IllegalArgumentException("The count or position (" + Integer.toUnsignedString(value) + ") is too large.");
+        }
+        return value;
+    }
+
+    private static int readUnsignedVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("The variable length integer is too long.");
+    }
+}
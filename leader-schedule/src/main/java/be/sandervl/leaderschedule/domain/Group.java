@@ -2,7 +2,10 @@ package be.sandervl.leaderschedule.domain;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.variable.PiggybackShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
+import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+import be.sandervl.leaderschedule.solver.GroupAggregateVariableListener;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
@@ -24,6 +27,21 @@ public class Group {
     @PlanningListVariable(allowsUnassignedValues = false)
     private List<Leader> leaders;
 
+    // Dense position in AffinityTable, -1 until the problem facts are compiled.
+    @JsonIgnore
+    private int index = -1;
+
+    // Aggregates over the leaders, kept up to date while solving by GroupAggregateVariableListener.
+    @ShadowVariable(variableListenerClass = GroupAggregateVariableListener.class, sourceVariableName = "leaders")
+    @JsonIgnore
+    private int leaderCount;
+    @PiggybackShadowVariable(shadowVariableName = "leaderCount")
+    @JsonIgnore
+    private int totalExperience;
+    @PiggybackShadowVariable(shadowVariableName = "leaderCount")
+    @JsonIgnore
+    private int affinityTotal;
+
     public Group() {
     }
 
@@ -58,6 +76,72 @@ public class Group {
         this.maximumLeaders = maximumLeaders;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getLeaderCount() {
+        return leaderCount;
+    }
+
+    public void setLeaderCount(int leaderCount) {
+        this.leaderCount = leaderCount;
+    }
+
+    public int getTotalExperience() {
+        return totalExperience;
+    }
+
+    public void setTotalExperience(int totalExperience) {
+        this.totalExperience = totalExperience;
+    }
+
+    /**
+     * @return the sum of the {@link AffinityTable} rewards of the leaders for this group
+     */
+    public int getAffinityTotal() {
+        return affinityTotal;
+    }
+
+    public void setAffinityTotal(int affinityTotal) {
+        this.affinityTotal = affinityTotal;
+    }
+
+    public int computeTotalExperience() {
+        var result = 0;
+        if (leaders == null) {
+            return result;
+        }
+        for (Leader leader : leaders) {
+            result += leader.getExperience();
+        }
+        return result;
+    }
+
+    public int computeAffinityTotal(AffinityTable affinities) {
+        var result = 0;
+        if (leaders == null) {
+            return result;
+        }
+        for (Leader leader : leaders) {
+            result += affinities.getReward(leader.getIndex(), index);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the aggregates from the leaders, outside of a solver.
+     */
+    public void updateAggregates(AffinityTable affinities) {
+        leaderCount = leaders == null ? 0 : leaders.size();
+        totalExperience = computeTotalExperience();
+        affinityTotal = computeAffinityTotal(affinities);
+    }
+
     public List<Leader> getLeaders() {
         return leaders;
     }
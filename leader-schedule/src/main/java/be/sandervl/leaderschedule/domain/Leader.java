@@ -29,6 +29,10 @@ public class Leader {
     @JsonIgnore
     private Group group;
 
+    // Dense position in LeaderRelations, -1 until the problem facts are compiled.
+    @JsonIgnore
+    private int index = -1;
+
     public Leader() {
     }
 
@@ -79,6 +83,14 @@ public class Leader {
         this.group = group;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
     public Set<Leader> getPreferredLeaders() {
         return preferredLeaders;
     }
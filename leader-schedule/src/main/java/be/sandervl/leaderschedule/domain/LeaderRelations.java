@@ -0,0 +1,177 @@
+package be.sandervl.leaderschedule.domain;
+
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The preferred and unwanted leaders of every leader, compiled into two bit matrices indexed by {@link Leader#getIndex()},
+ * so the constraints check a pair with a single array read instead of hashing names into a {@link Set}.
+ * The matrices grow with the square of the number of leaders, so beyond {@link #MAX_DENSE_SIZE} leaders
+ * every leader gets a sorted array of the leaders they prefer or don't want instead, checked with a binary search.
+ * <p>
+ * A problem fact of {@link LeaderScheduleSolution}: it is shared, not cloned, between the solutions of a solver,
+ * so it is never changed after it is compiled. A problem change that touches preferences compiles a new one.
+ */
+public class LeaderRelations {
+
+    /**
+     * Two matrices of this many leaders take 4 MiB.
+     */
+    public static final int MAX_DENSE_SIZE = 4096;
+
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    private static final int[] NO_LEADERS = new int[0];
+
+    @PlanningId
+    private final long id;
+    private final int size;
+    private final int wordsPerRow;
+    // Dense: row a, bit b is set if leader a prefers, or doesn't want, leader b. Null if sparse.
+    private final long[] preferred;
+    private final long[] unwanted;
+    // Sparse: row a holds the sorted indices of the leaders a prefers, or doesn't want. Null if dense.
+    private final int[][] preferredRows;
+    private final int[][] unwantedRows;
+    private final BitSet withPreferences;
+    private final BitSet withAversions;
+
+    private LeaderRelations(int size, boolean dense) {
+        this.id = ID_SEQUENCE.incrementAndGet();
+        this.size = size;
+        this.wordsPerRow = (size + Long.SIZE - 1) / Long.SIZE;
+        this.preferred = dense ? new long[size * wordsPerRow] : null;
+        this.unwanted = dense ? new long[size * wordsPerRow] : null;
+        this.preferredRows = dense ? null : new int[size][];
+        this.unwantedRows = dense ? null : new int[size][];
+        if (!dense) {
+            // Indices that no leader holds anymore are never looked up, but do get counted.
+            Arrays.fill(preferredRows, NO_LEADERS);
+            Arrays.fill(unwantedRows, NO_LEADERS);
+        }
+        this.withPreferences = new BitSet(size);
+        this.withAversions = new BitSet(size);
+    }
+
+    /**
+     * Gives every leader without a valid index a new one, then compiles the preferences of all leaders.
+     * Leaders that already have an index keep it, so a working solution's entities don't have to change.
+     */
+    public static LeaderRelations compile(List<Leader> leaders) {
+        return compile(leaders, MAX_DENSE_SIZE);
+    }
+
+    static LeaderRelations compile(List<Leader> leaders, int maxDenseSize) {
+        var taken = new BitSet();
+        int nextIndex = 0;
+        for (Leader leader : leaders) {
+            if (leader.getIndex() >= 0 && !taken.get(leader.getIndex())) {
+                taken.set(leader.getIndex());
+                nextIndex = Math.max(nextIndex, leader.getIndex() + 1);
+            } else {
+                leader.setIndex(-1);
+            }
+        }
+        for (Leader leader : leaders) {
+            if (leader.getIndex() < 0) {
+                leader.setIndex(nextIndex++);
+            }
+        }
+        var relations = new LeaderRelations(nextIndex, nextIndex <= maxDenseSize);
+        for (Leader leader : leaders) {
+            if (relations.preferred != null) {
+                relations.set(relations.preferred, relations.withPreferences, leader, leader.getPreferredLeaders());
+                relations.set(relations.unwanted, relations.withAversions, leader, leader.getUnwantedLeaders());
+            } else {
+                relations.set(relations.preferredRows, relations.withPreferences, leader, leader.getPreferredLeaders());
+                relations.set(relations.unwantedRows, relations.withAversions, leader, leader.getUnwantedLeaders());
+            }
+        }
+        return relations;
+    }
+
+    private void set(long[] matrix, BitSet withAny, Leader leader, Set<Leader> others) {
+        if (others == null) {
+            return;
+        }
+        for (Leader other : others) {
+            // Preferences for leaders outside the schedule can never be met, nor broken.
+            if (other.getIndex() < 0 || other.getIndex() >= size) {
+                continue;
+            }
+            matrix[leader.getIndex() * wordsPerRow + (other.getIndex() >>> 6)] |= 1L << other.getIndex();
+            withAny.set(leader.getIndex());
+        }
+    }
+
+    private void set(int[][] rows, BitSet withAny, Leader leader, Set<Leader> others) {
+        int[] row = others == null ? NO_LEADERS : others.stream()
+                .mapToInt(Leader::getIndex)
+                .filter(index -> index >= 0 && index < size)
+                .sorted()
+                .distinct()
+                .toArray();
+        rows[leader.getIndex()] = row.length == 0 ? NO_LEADERS : row;
+        if (row.length > 0) {
+            withAny.set(leader.getIndex());
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the number of leader indices, every leader of the schedule has an index below it
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isDense() {
+        return preferred != null;
+    }
+
+    public boolean isPreferred(int leaderIndex, int otherIndex) {
+        if (preferred == null) {
+            return Arrays.binarySearch(preferredRows[leaderIndex], otherIndex) >= 0;
+        }
+        return (preferred[leaderIndex * wordsPerRow + (otherIndex >>> 6)] & (1L << otherIndex)) != 0L;
+    }
+
+    public boolean isUnwanted(int leaderIndex, int otherIndex) {
+        if (unwanted == null) {
+            return Arrays.binarySearch(unwantedRows[leaderIndex], otherIndex) >= 0;
+        }
+        return (unwanted[leaderIndex * wordsPerRow + (otherIndex >>> 6)] & (1L << otherIndex)) != 0L;
+    }
+
+    public boolean hasPreferences(int leaderIndex) {
+        return withPreferences.get(leaderIndex);
+    }
+
+    public boolean hasAversions(int leaderIndex) {
+        return withAversions.get(leaderIndex);
+    }
+
+    /**
+     * @return the memory held by both matrices, which grows with the square of the number of leaders,
+     * or by the rows of every leader if sparse
+     */
+    public long getMatrixBytes() {
+        if (preferred != null) {
+            return 2L * preferred.length * Long.BYTES;
+        }
+        long bytes = 0L;
+        for (int i = 0; i < size; i++) {
+            // Array header and reference, rows without leaders share one empty array.
+            bytes += 2L * Long.BYTES;
+            bytes += (long) (preferredRows[i].length + unwantedRows[i].length) * Integer.BYTES;
+        }
+        return bytes;
+    }
+}
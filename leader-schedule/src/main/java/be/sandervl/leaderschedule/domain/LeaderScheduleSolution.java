@@ -3,10 +3,12 @@ package be.sandervl.leaderschedule.domain;
 import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactProperty;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 import be.sandervl.leaderschedule.solver.LeaderScheduleConstraintProvider;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
@@ -21,6 +23,14 @@ public class LeaderScheduleSolution {
     @PlanningEntityCollectionProperty
     private List<Group> groups;
 
+    @ProblemFactProperty
+    @JsonIgnore
+    private LeaderRelations leaderRelations;
+
+    @ProblemFactProperty
+    @JsonIgnore
+    private AffinityTable affinityTable;
+
     @PlanningScore(
             bendableHardLevelsSize = LeaderScheduleConstraintProvider.BENDABLE_SCORE_HARD_LEVELS_SIZE,
             bendableSoftLevelsSize = LeaderScheduleConstraintProvider.BENDABLE_SCORE_SOFT_LEVELS_SIZE
@@ -53,6 +63,58 @@ public class LeaderScheduleSolution {
         this.groups = groups;
     }
 
+    public LeaderRelations getLeaderRelations() {
+        return leaderRelations;
+    }
+
+    public void setLeaderRelations(LeaderRelations leaderRelations) {
+        this.leaderRelations = leaderRelations;
+    }
+
+    public AffinityTable getAffinityTable() {
+        return affinityTable;
+    }
+
+    public void setAffinityTable(AffinityTable affinityTable) {
+        this.affinityTable = affinityTable;
+    }
+
+    /**
+     * Derives the problem facts the constraints read from the leaders and groups,
+     * and the group aggregates from the current assignment.
+     * Call it on every schedule that is loaded, for example after deserializing,
+     * before it is solved or scored.
+     */
+    public void compileProblemFacts() {
+        leaderRelations = LeaderRelations.compile(leaders);
+        affinityTable = AffinityTable.compile(leaders, groups);
+        for (Group group : groups) {
+            group.updateAggregates(affinityTable);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if {@link #compileProblemFacts()} wasn't called, or leaders or groups were added since,
+     * as the constraints would read no or the wrong preferences and affinities for them
+     */
+    public void checkProblemFactsCompiled() {
+        if (leaderRelations == null || affinityTable == null) {
+            throw new IllegalStateException("The problem facts of the schedule aren't compiled, call compileProblemFacts() first.");
+        }
+        for (Leader leader : leaders) {
+            if (leader.getIndex() < 0 || leader.getIndex() >= leaderRelations.getSize() || leader.getIndex() >= affinityTable.getLeaderCount()) {
+                throw new IllegalStateException("The leader (" + leader.getFullName()
+                        + ") was added after the problem facts were compiled, call compileProblemFacts() again.");
+            }
+        }
+        for (Group group : groups) {
+            if (group.getIndex() < 0 || group.getIndex() >= affinityTable.getGroupCount()) {
+                throw new IllegalStateException("The group (" + group.getName()
+                        + ") was added after the problem facts were compiled, call compileProblemFacts() again.");
+            }
+        }
+    }
+
     public BendableScore getScore() {
         return score;
     }
@@ -68,4 +130,17 @@ public class LeaderScheduleSolution {
     public void setSolverStatus(SolverStatus solverStatus) {
         this.solverStatus = solverStatus;
     }
+
+    /**
+     * @return a shallow copy with the given solver status, sharing the leaders, groups and problem facts of this schedule,
+     * so a schedule that others read can be returned with its status without being written to
+     */
+    public LeaderScheduleSolution withSolverStatus(SolverStatus solverStatus) {
+        var result = new LeaderScheduleSolution(score, solverStatus);
+        result.leaders = leaders;
+        result.groups = groups;
+        result.leaderRelations = leaderRelations;
+        result.affinityTable = affinityTable;
+        return result;
+    }
 }
@@ -0,0 +1,119 @@
+package be.sandervl.leaderschedule.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A SHA-256 hash of the problem facts of a schedule: its leaders with their experience, group affinities
+ * and preferred and unwanted leaders, and its groups with their bounds.
+ * Equal for schedules that only differ in the order of their leaders, groups or preferences,
+ * or, unless the assignments are hashed as well, in how the leaders are assigned.
+ */
+public final class ProblemHash {
+
+    // Every string is hashed as a marker, then its length and bytes, and every collection with its size first,
+    // so no two different schedules hash the same bytes, like ("ab", "c") and ("a", "bc"), or a preferred leader
+    // and an unwanted leader of the same name.
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+
+    private ProblemHash() {
+    }
+
+    /**
+     * @param settings anything else the result depends on, like how it is solved
+     * @return the hash in hexadecimal
+     */
+    public static String of(LeaderScheduleSolution schedule, String settings) {
+        return hash(schedule, settings, false);
+    }
+
+    /**
+     * Like {@link #of(LeaderScheduleSolution, String)}, but also hashes which leaders every group holds,
+     * so it identifies a solution instead of a problem.
+     */
+    public static String withAssignments(LeaderScheduleSolution schedule, String settings) {
+        return hash(schedule, settings, true);
+    }
+
+    private static String hash(LeaderScheduleSolution schedule, String settings, boolean withAssignments) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is missing from the JVM.", e);
+        }
+        update(digest, settings);
+        List<Leader> leaders = new ArrayList<>(schedule.getLeaders() == null ? List.of() : schedule.getLeaders());
+        leaders.sort(Comparator.comparing(Leader::getFullName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        update(digest, leaders.size());
+        for (Leader leader : leaders) {
+            update(digest, leader.getFullName());
+            update(digest, leader.getExperience());
+            Map<String, Affinity> affinities = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (leader.getGroupAffinityMap() != null) {
+                affinities.putAll(leader.getGroupAffinityMap());
+            }
+            update(digest, affinities.size());
+            for (Map.Entry<String, Affinity> entry : affinities.entrySet()) {
+                update(digest, entry.getKey());
+                update(digest, entry.getValue() == null ? null : entry.getValue().name());
+            }
+            updateNames(digest, leader.getPreferredLeaders());
+            updateNames(digest, leader.getUnwantedLeaders());
+        }
+        List<Group> groups = new ArrayList<>(schedule.getGroups() == null ? List.of() : schedule.getGroups());
+        groups.sort(Comparator.comparing(Group::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        update(digest, groups.size());
+        for (Group group : groups) {
+            update(digest, group.getName());
+            update(digest, group.getMinimumLeaders());
+            update(digest, group.getMaximumLeaders());
+            if (withAssignments) {
+                updateNames(digest, group.getLeaders());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the size, then the sorted names, no leaders hashing the same as none.
+     */
+    private static void updateNames(MessageDigest digest, Collection<Leader> leaders) {
+        List<String> names = new ArrayList<>(leaders == null ? 0 : leaders.size());
+        if (leaders != null) {
+            for (Leader leader : leaders) {
+                names.add(leader.getFullName());
+            }
+        }
+        names.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+        update(digest, names.size());
+        for (String name : names) {
+            update(digest, name);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(PRESENT);
+        update(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(MessageDigest digest, int value) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, value).array());
+    }
+}
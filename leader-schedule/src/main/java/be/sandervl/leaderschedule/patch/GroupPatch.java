@@ -0,0 +1,7 @@
+package be.sandervl.leaderschedule.patch;
+
+/**
+ * The new leader requirements of a group. Null values are left unchanged.
+ */
+public record GroupPatch(String name, Integer minimumLeaders, Integer maximumLeaders) {
+}
@@ -0,0 +1,16 @@
+package be.sandervl.leaderschedule.patch;
+
+import be.sandervl.leaderschedule.domain.Affinity;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The new values of a leader. Null values are left unchanged, or left empty for a new leader.
+ *
+ * @param preferredLeaders full names, replacing all previously preferred leaders
+ * @param unwantedLeaders full names, replacing all previously unwanted leaders
+ */
+public record LeaderPatch(String fullName, Integer experience, Map<String, Affinity> groupAffinityMap,
+        Set<String> preferredLeaders, Set<String> unwantedLeaders) {
+}
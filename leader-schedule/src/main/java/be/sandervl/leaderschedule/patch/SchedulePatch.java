@@ -0,0 +1,27 @@
+package be.sandervl.leaderschedule.patch;
+
+import java.util.List;
+
+/**
+ * Changes to the problem facts of a schedule, applied to a job by {@link SchedulePatchChange}.
+ * Any list can be null or left out.
+ *
+ * @param addedLeaders new leaders, they'll be assigned to a group by the solver
+ * @param removedLeaders full names of leaders to remove, also from the preferences of other leaders
+ * @param changedLeaders changes to existing leaders, looked up by full name
+ * @param changedGroups changes to existing groups, looked up by name
+ */
+public record SchedulePatch(List<LeaderPatch> addedLeaders, List<String> removedLeaders,
+        List<LeaderPatch> changedLeaders, List<GroupPatch> changedGroups) {
+
+    public SchedulePatch {
+        addedLeaders = addedLeaders == null ? List.of() : addedLeaders;
+        removedLeaders = removedLeaders == null ? List.of() : removedLeaders;
+        changedLeaders = changedLeaders == null ? List.of() : changedLeaders;
+        changedGroups = changedGroups == null ? List.of() : changedGroups;
+    }
+
+    public boolean isEmpty() {
+        return addedLeaders.isEmpty() && removedLeaders.isEmpty() && changedLeaders.isEmpty() && changedGroups.isEmpty();
+    }
+}
@@ -0,0 +1,268 @@
+package be.sandervl.leaderschedule.patch;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+import be.sandervl.leaderschedule.domain.AffinityTable;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderRelations;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Applies one or more {@link SchedulePatch}es, in order, to the working solution of a running solver.
+ * The leaders that stay keep their group, so the solver continues from the previous assignment
+ * and only has to place the new leaders and repair what the changes broke.
+ * <p>
+ * Patches are validated against the best solution before they're submitted,
+ * but another change can still come in between, so names that no longer match are skipped with a warning.
+ * <p>
+ * The group aggregates only follow changes of the leaders list, see {@code GroupAggregateVariableListener}.
+ * So the whole change runs inside a single change of the leaders list of every group that loses a leader,
+ * or holds a leader whose experience or affinities change: the listener takes those leaders out as they were,
+ * and puts them back in as they are once the problem facts are compiled again.
+ * The leaders of other groups don't change, nor do their aggregates.
+ */
+public class SchedulePatchChange implements ProblemChange<LeaderScheduleSolution> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulePatchChange.class);
+
+    private final List<SchedulePatch> patches;
+
+    public SchedulePatchChange(List<SchedulePatch> patches) {
+        this.patches = List.copyOf(patches);
+    }
+
+    public SchedulePatchChange(SchedulePatch patch) {
+        this(List.of(patch));
+    }
+
+    /**
+     * @return a description of the first reason the patch can't be applied to the schedule, or null if it can
+     */
+    public static String validate(SchedulePatch patch, LeaderScheduleSolution schedule) {
+        return validate(patch, schedule, List.of());
+    }
+
+    /**
+     * @param pendingPatches patches that will be applied to the schedule before this one
+     * @return a description of the first reason the patch can't be applied to the schedule, or null if it can
+     */
+    public static String validate(SchedulePatch patch, LeaderScheduleSolution schedule, List<SchedulePatch> pendingPatches) {
+        Set<String> leaderNames = new HashSet<>();
+        schedule.getLeaders().forEach(leader -> leaderNames.add(leader.getFullName()));
+        for (SchedulePatch pendingPatch : pendingPatches) {
+            pendingPatch.addedLeaders().forEach(added -> leaderNames.add(added.fullName()));
+            pendingPatch.removedLeaders().forEach(leaderNames::remove);
+        }
+        for (LeaderPatch added : patch.addedLeaders()) {
+            if (added.fullName() == null || !leaderNames.add(added.fullName())) {
+                return "Leader (" + added.fullName() + ") can't be added, the name is missing or already taken.";
+            }
+        }
+        for (LeaderPatch changed : patch.changedLeaders()) {
+            if (!leaderNames.contains(changed.fullName())) {
+                return "Leader (" + changed.fullName() + ") can't be changed, no such leader.";
+            }
+        }
+        for (String removed : patch.removedLeaders()) {
+            if (!leaderNames.contains(removed)) {
+                return "Leader (" + removed + ") can't be removed, no such leader.";
+            }
+        }
+        for (GroupPatch changed : patch.changedGroups()) {
+            if (schedule.getGroups().stream().noneMatch(group -> group.getName().equals(changed.name()))) {
+                return "Group (" + changed.name() + ") can't be changed, no such group.";
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void doChange(LeaderScheduleSolution schedule, ProblemChangeDirector director) {
+        Map<String, Leader> leadersByName = new HashMap<>();
+        schedule.getLeaders().forEach(leader -> leadersByName.put(leader.getFullName(), leader));
+        Map<String, Group> groupsByName = new HashMap<>();
+        schedule.getGroups().forEach(group -> groupsByName.put(group.getName(), group));
+        List<Group> changedGroups = new ArrayList<>(getGroupsWithChangedLeaders(leadersByName));
+        changeLeadersOf(changedGroups, 0, director, () -> {
+            int nextIndex = schedule.getLeaders().stream().mapToInt(Leader::getIndex).max().orElse(-1) + 1;
+            boolean leadersChanged = false;
+            for (SchedulePatch patch : patches) {
+                nextIndex = apply(patch, schedule, director, leadersByName, groupsByName, nextIndex);
+                leadersChanged |= !patch.addedLeaders().isEmpty() || !patch.removedLeaders().isEmpty() || !patch.changedLeaders().isEmpty();
+            }
+            if (leadersChanged) {
+                // The compiled facts are shared with earlier best solutions, so they are replaced instead of changed.
+                replaceProblemFact(director, schedule.getLeaderRelations(), LeaderRelations.compile(schedule.getLeaders()),
+                        schedule::setLeaderRelations);
+                replaceProblemFact(director, schedule.getAffinityTable(), AffinityTable.compile(schedule.getLeaders(), schedule.getGroups()),
+                        schedule::setAffinityTable);
+            }
+        });
+    }
+
+    /**
+     * @return the groups that lose a leader, or hold a leader whose experience or affinities change
+     */
+    private Set<Group> getGroupsWithChangedLeaders(Map<String, Leader> leadersByName) {
+        Set<Group> groups = new LinkedHashSet<>();
+        for (SchedulePatch patch : patches) {
+            for (LeaderPatch changed : patch.changedLeaders()) {
+                Leader leader = leadersByName.get(changed.fullName());
+                if (leader != null && leader.getGroup() != null
+                        && (changed.experience() != null || changed.groupAffinityMap() != null)) {
+                    groups.add(leader.getGroup());
+                }
+            }
+            for (String removed : patch.removedLeaders()) {
+                Leader leader = leadersByName.get(removed);
+                if (leader != null && leader.getGroup() != null) {
+                    groups.add(leader.getGroup());
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Runs the change inside one change of the leaders list of every group, from the given one on.
+     */
+    private static void changeLeadersOf(List<Group> groups, int from, ProblemChangeDirector director, Runnable change) {
+        if (from == groups.size()) {
+            change.run();
+            return;
+        }
+        director.changeVariable(groups.get(from), "leaders", group -> changeLeadersOf(groups, from + 1, director, change));
+    }
+
+    private static <Fact> void replaceProblemFact(ProblemChangeDirector director, Fact previous, Fact compiled, Consumer<Fact> setter) {
+        if (previous != null) {
+            director.removeProblemFact(previous, fact -> setter.accept(null));
+        }
+        director.addProblemFact(compiled, setter);
+    }
+
+    /**
+     * @return the next free leader index
+     */
+    private static int apply(SchedulePatch patch, LeaderScheduleSolution schedule, ProblemChangeDirector director,
+            Map<String, Leader> leadersByName, Map<String, Group> groupsByName, int nextIndex) {
+        for (LeaderPatch added : patch.addedLeaders()) {
+            if (leadersByName.containsKey(added.fullName())) {
+                LOGGER.warn("Skipped adding leader ({}), the name is already taken.", added.fullName());
+                continue;
+            }
+            var leader = new Leader(added.fullName(), 0);
+            // Removed leaders leave a gap instead of shifting the index of the leaders after them.
+            leader.setIndex(nextIndex++);
+            leadersByName.put(leader.getFullName(), leader);
+            director.addEntity(leader, schedule.getLeaders()::add);
+        }
+        // Resolved once all new leaders exist, so they can prefer each other.
+        for (LeaderPatch added : patch.addedLeaders()) {
+            changeLeader(added, director, leadersByName);
+        }
+        for (LeaderPatch changed : patch.changedLeaders()) {
+            changeLeader(changed, director, leadersByName);
+        }
+        for (GroupPatch changed : patch.changedGroups()) {
+            Group group = groupsByName.get(changed.name());
+            if (group == null) {
+                LOGGER.warn("Skipped changing group ({}), no such group.", changed.name());
+                continue;
+            }
+            director.changeProblemProperty(group, workingGroup -> {
+                if (changed.minimumLeaders() != null) {
+                    workingGroup.setMinimumLeaders(changed.minimumLeaders());
+                }
+                if (changed.maximumLeaders() != null) {
+                    workingGroup.setMaximumLeaders(changed.maximumLeaders());
+                }
+            });
+        }
+        for (String removed : patch.removedLeaders()) {
+            Leader leader = leadersByName.remove(removed);
+            if (leader == null) {
+                LOGGER.warn("Skipped removing leader ({}), no such leader.", removed);
+                continue;
+            }
+            if (leader.getGroup() != null) {
+                // Inside the change of the group's leaders, see doChange.
+                leader.getGroup().getLeaders().remove(leader);
+            }
+            for (Leader other : leadersByName.values()) {
+                if (contains(other.getPreferredLeaders(), leader) || contains(other.getUnwantedLeaders(), leader)) {
+                    director.changeProblemProperty(other, workingOther -> {
+                        workingOther.setPreferredLeaders(without(workingOther.getPreferredLeaders(), leader));
+                        workingOther.setUnwantedLeaders(without(workingOther.getUnwantedLeaders(), leader));
+                    });
+                }
+            }
+            director.removeEntity(leader, schedule.getLeaders()::remove);
+        }
+        return nextIndex;
+    }
+
+    private static void changeLeader(LeaderPatch changed, ProblemChangeDirector director, Map<String, Leader> leadersByName) {
+        Leader leader = leadersByName.get(changed.fullName());
+        if (leader == null) {
+            LOGGER.warn("Skipped changing leader ({}), no such leader.", changed.fullName());
+            return;
+        }
+        director.changeProblemProperty(leader, workingLeader -> {
+            if (changed.experience() != null) {
+                workingLeader.setExperience(changed.experience());
+            }
+            if (changed.groupAffinityMap() != null) {
+                workingLeader.setGroupAffinityMap(new LinkedHashMap<>(changed.groupAffinityMap()));
+            } else if (workingLeader.getGroupAffinityMap() == null) {
+                workingLeader.setGroupAffinityMap(new LinkedHashMap<>());
+            }
+            if (changed.preferredLeaders() != null) {
+                workingLeader.setPreferredLeaders(toLeaders(changed.preferredLeaders(), leadersByName));
+            }
+            if (changed.unwantedLeaders() != null) {
+                workingLeader.setUnwantedLeaders(toLeaders(changed.unwantedLeaders(), leadersByName));
+            }
+        });
+    }
+
+    private static Set<Leader> toLeaders(Set<String> names, Map<String, Leader> leadersByName) {
+        Set<Leader> leaders = new HashSet<>();
+        for (String name : names) {
+            Leader leader = leadersByName.get(name);
+            if (leader == null) {
+                LOGGER.warn("Ignored unknown leader ({}).", name);
+            } else {
+                leaders.add(leader);
+            }
+        }
+        // The constraints treat null as no preference at all.
+        return leaders.isEmpty() ? null : leaders;
+    }
+
+    private static boolean contains(Set<Leader> leaders, Leader leader) {
+        return leaders != null && leaders.contains(leader);
+    }
+
+    private static Set<Leader> without(Set<Leader> leaders, Leader leader) {
+        if (leaders == null) {
+            return null;
+        }
+        Set<Leader> remaining = new HashSet<>(leaders);
+        remaining.remove(leader);
+        return remaining.isEmpty() ? null : remaining;
+    }
+}
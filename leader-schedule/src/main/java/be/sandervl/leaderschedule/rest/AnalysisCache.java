@@ -0,0 +1,63 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the last score analyses, so analyzing the same schedule again is answered without scoring it.
+ * <p>
+ * An analysis is either keyed by a {@link be.sandervl.leaderschedule.domain.ProblemHash#withAssignments hash}
+ * of the submitted schedule, or by a job, in which case it only holds as long as the job's best solution
+ * is the exact same instance it was computed for.
+ * The least recently used analyses are evicted beyond {@code leader-schedule.analysis-cache.max-size}.
+ */
+@ApplicationScoped
+public class AnalysisCache {
+
+    private final int maxSize;
+
+    // Guarded by this.
+    private final LinkedHashMap<String, Entry> analyses;
+
+    @Inject
+    public AnalysisCache(@ConfigProperty(name = "leader-schedule.analysis-cache.max-size", defaultValue = "32") int maxSize) {
+        this.maxSize = maxSize;
+        this.analyses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AnalysisCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param source the instance the analysis is computed from if it can change under the same key, null otherwise
+     * @param analyzer computes the analysis if it isn't cached, outside of the lock, so two callers might both compute it
+     */
+    public <A extends ScoreAnalysis<?>> A get(String key, Object source, Supplier<A> analyzer) {
+        synchronized (this) {
+            Entry entry = analyses.get(key);
+            if (entry != null && entry.source == source) {
+                @SuppressWarnings("unchecked")
+                A analysis = (A) entry.analysis;
+                return analysis;
+            }
+        }
+        A analysis = analyzer.get();
+        if (maxSize > 0) {
+            synchronized (this) {
+                analyses.put(key, new Entry(source, analysis));
+            }
+        }
+        return analysis;
+    }
+
+    private record Entry(Object source, ScoreAnalysis<?> analysis) {
+    }
+}
@@ -0,0 +1,7 @@
+package be.sandervl.leaderschedule.rest;
+
+/**
+ * A leader and the name of the group they're in, or {@code null} if they left every group.
+ */
+public record Assignment(String leader, String group) {
+}
@@ -0,0 +1,16 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import java.util.List;
+
+/**
+ * The assignments that changed between two versions of the best solution of a job.
+ *
+ * @param version pass this as {@code since} on the next request
+ * @param complete true if the assignments hold every leader instead of only the changed ones,
+ * because the requested version is older than the changes that are kept
+ */
+public record AssignmentChanges(long version, boolean complete, String score, SolverStatus solverStatus,
+        List<Assignment> assignments) {
+}
@@ -0,0 +1,103 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Numbers the best solutions of a job and remembers which leaders changed group in each of them,
+ * so clients that already know the problem facts only have to fetch the moves.
+ * Version 0 is the submitted problem.
+ */
+final class AssignmentLog {
+
+    private static final int MAX_RETAINED_VERSIONS = 100;
+
+    private long version = 0;
+    private Map<String, String> groupByLeader;
+    // The leader to group changes of the last versions, oldest first, the last one being the current version.
+    private final Deque<Map<String, String>> changesPerVersion = new ArrayDeque<>();
+
+    AssignmentLog(LeaderScheduleSolution problem) {
+        this.groupByLeader = toGroupByLeader(problem);
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Registers a new best solution under the next version.
+     */
+    synchronized void record(LeaderScheduleSolution solution) {
+        Map<String, String> newGroupByLeader = toGroupByLeader(solution);
+        Map<String, String> changes = new HashMap<>();
+        newGroupByLeader.forEach((leader, group) -> {
+            if (!Objects.equals(group, groupByLeader.get(leader))) {
+                changes.put(leader, group);
+            }
+        });
+        groupByLeader.keySet().stream()
+                .filter(leader -> !newGroupByLeader.containsKey(leader))
+                .forEach(leader -> changes.put(leader, null));
+        groupByLeader = newGroupByLeader;
+        version++;
+        changesPerVersion.addLast(changes);
+        if (changesPerVersion.size() > MAX_RETAINED_VERSIONS) {
+            changesPerVersion.removeFirst();
+        }
+    }
+
+    /**
+     * @param since a version returned earlier, or null if the client knows no assignments yet
+     * @return the changes after the given version, or all current assignments if those changes are no longer kept
+     */
+    synchronized AssignmentChanges since(Long since, String score, SolverStatus solverStatus) {
+        long oldestKnownVersion = version - changesPerVersion.size();
+        if (since == null || since < oldestKnownVersion || since > version) {
+            List<Assignment> assignments = new ArrayList<>(groupByLeader.size());
+            groupByLeader.forEach((leader, group) -> assignments.add(new Assignment(leader, group)));
+            return new AssignmentChanges(version, true, score, solverStatus, assignments);
+        }
+        // Later versions overwrite earlier moves of the same leader.
+        Map<String, String> merged = new LinkedHashMap<>();
+        Iterator<Map<String, String>> iterator = changesPerVersion.descendingIterator();
+        for (long v = version; v > since; v--) {
+            iterator.next().forEach((leader, group) -> {
+                if (!merged.containsKey(leader)) {
+                    merged.put(leader, group);
+                }
+            });
+        }
+        List<Assignment> assignments = new ArrayList<>(merged.size());
+        merged.forEach((leader, group) -> assignments.add(new Assignment(leader, group)));
+        return new AssignmentChanges(version, false, score, solverStatus, assignments);
+    }
+
+    private static Map<String, String> toGroupByLeader(LeaderScheduleSolution solution) {
+        Map<String, String> groupByLeader = new HashMap<>();
+        if (solution.getGroups() == null) {
+            return groupByLeader;
+        }
+        for (Group group : solution.getGroups()) {
+            if (group.getLeaders() == null) {
+                continue;
+            }
+            for (Leader leader : group.getLeaders()) {
+                groupByLeader.put(leader.getFullName(), group.getName());
+            }
+        }
+        return groupByLeader;
+    }
+}
@@ -0,0 +1,14 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.List;
+
+/**
+ * Many schedules to solve for the same tenant, for example one per chapter of an organization.
+ *
+ * @param tenant who the schedules are for, batches of the same tenant share a queue
+ * @param priority batches with a higher priority start before those with a lower one, 0 if null
+ */
+public record BatchRequest(String tenant, Integer priority, List<LeaderScheduleSolution> problems) {
+}
@@ -0,0 +1,344 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Solves batches of schedules, and every other job, on a bounded number of solver threads, fairly across tenants.
+ * <p>
+ * Every tenant has its own queue. Whenever enough solvers are free, the queued job with the highest priority starts.
+ * A job takes as many solvers as it starts solver jobs: a portfolio one per member, a partitioned job one per partition.
+ * Until it is split, a partitioned job holds as many solvers as it can have partitions.
+ * Between tenants waiting with the same priority, the tenant that least recently started a job goes first,
+ * so a tenant submitting hundreds of jobs delays every other tenant by at most one job of theirs.
+ * Within a tenant, jobs start in order of submission.
+ * Single schedules, resolved schedules and the jobs resumed on startup are queued for the {@link #SINGLE_JOB_TENANT}
+ * with priority 0.
+ * <p>
+ * Queued jobs are registered in the {@link JobStore} right away, so they can be read and terminated
+ * with the job endpoints while they're still queued.
+ */
+@ApplicationScoped
+public class BatchScheduler {
+
+    public static final String SINGLE_JOB_TENANT = "default";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchScheduler.class);
+
+    private static final Comparator<QueuedJob> QUEUE_ORDER = Comparator.comparingInt((QueuedJob job) -> -job.priority)
+            .thenComparingLong(job -> job.sequence);
+
+    private final JobLauncher jobLauncher;
+    private final int maxSolvingJobs;
+    private final int maxFinishedBatches;
+
+    // All guarded by this.
+    // Tenants with queued jobs, the tenant that least recently started a job first.
+    private final LinkedHashMap<String, PriorityQueue<QueuedJob>> tenantQueues = new LinkedHashMap<>();
+    private final Map<String, QueuedJob> queuedJobs = new HashMap<>();
+    private final Map<String, QueuedJob> solvingJobs = new HashMap<>();
+    // Dispatched jobs that aren't launched yet, and those of them that were terminated meanwhile.
+    private final Set<String> startingJobIds = new HashSet<>();
+    private final Set<String> terminatedJobIds = new HashSet<>();
+    // The solvers taken by the solving jobs.
+    private int solvingWeight = 0;
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final Deque<String> finishedBatchIds = new ArrayDeque<>();
+    private long sequence = 0L;
+
+    @Inject
+    public BatchScheduler(JobLauncher jobLauncher,
+                          @ConfigProperty(name = "leader-schedule.batch.max-solving-jobs") Optional<Integer> maxSolvingJobs,
+                          @ConfigProperty(name = "leader-schedule.batch.max-finished-batches", defaultValue = "100") int maxFinishedBatches) {
+        this.jobLauncher = jobLauncher;
+        // Same as the solver manager's default parallel solver count, so queued jobs don't wait in its queue as well.
+        this.maxSolvingJobs = maxSolvingJobs.orElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.maxFinishedBatches = maxFinishedBatches;
+    }
+
+    /**
+     * Queues every problem of the batch and starts as many as there are free solvers.
+     * None is queued unless every problem registers.
+     *
+     * @return the batch ID
+     */
+    public String submit(String tenant, int priority, List<LeaderScheduleSolution> problems) {
+        // Registering compiles the problem facts, which takes a while, so it happens before taking the lock.
+        List<String> jobIds = new ArrayList<>(problems.size());
+        try {
+            for (LeaderScheduleSolution problem : problems) {
+                jobIds.add(jobLauncher.register(problem));
+            }
+        } catch (RuntimeException e) {
+            jobIds.forEach(jobLauncher::cancel);
+            throw e;
+        }
+        var batch = new Batch(UUID.randomUUID().toString(), tenant, priority);
+        List<QueuedJob> dispatchedJobs;
+        synchronized (this) {
+            batches.put(batch.id, batch);
+            for (String jobId : jobIds) {
+                batch.jobIds.add(jobId);
+                batch.queued++;
+                enqueue(new QueuedJob(jobId, batch, tenant, priority, 1, sequence++,
+                        whenDone -> jobLauncher.launch(jobId, whenDone)));
+            }
+            dispatchedJobs = dispatch();
+        }
+        LOGGER.info("Queued batch ({}) of {} jobs for tenant ({}) with priority {}.", batch.id, jobIds.size(), tenant, priority);
+        start(dispatchedJobs);
+        return batch.id;
+    }
+
+    /**
+     * Queues a single registered job for the {@link #SINGLE_JOB_TENANT} and starts it if there are enough free solvers.
+     *
+     * @param solvers the most solver jobs the job can start, it waits for at most all solvers
+     * @param launch launches the job, with the callback for once solving has ended,
+     * and returns the number of solver jobs it started, to free the solvers it doesn't use
+     */
+    public void submit(String jobId, int solvers, ToIntFunction<Runnable> launch) {
+        int weight = Math.max(1, Math.min(solvers, maxSolvingJobs));
+        List<QueuedJob> dispatchedJobs;
+        synchronized (this) {
+            enqueue(new QueuedJob(jobId, null, SINGLE_JOB_TENANT, 0, weight, sequence++, launch));
+            dispatchedJobs = dispatch();
+        }
+        start(dispatchedJobs);
+    }
+
+    /**
+     * Queues the jobs that were still solving when the application stopped, so they don't take solvers
+     * the queued jobs are counting on.
+     */
+    void resumeJournaledJobs(@Observes StartupEvent event) {
+        for (String jobId : jobLauncher.restoreJournaledJobs()) {
+            submit(jobId, 1, whenDone -> jobLauncher.launch(jobId, whenDone));
+        }
+    }
+
+    /**
+     * @return the progress of the batch, or null if it doesn't exist or is evicted
+     */
+    public synchronized BatchStatus getStatus(String batchId) {
+        Batch batch = batches.get(batchId);
+        if (batch == null) {
+            return null;
+        }
+        return new BatchStatus(batch.id, batch.tenant, batch.priority, batch.createdAt,
+                batch.queued, batch.solving, batch.finished, List.copyOf(batch.jobIds));
+    }
+
+    /**
+     * Removes a job from its queue before it is started.
+     *
+     * A job that is about to be submitted to the solver is terminated as soon as it is.
+     *
+     * @return true if the job was queued, false if it is unknown to the scheduler or already submitted to the solver
+     */
+    public boolean cancel(String jobId) {
+        synchronized (this) {
+            QueuedJob queuedJob = queuedJobs.remove(jobId);
+            if (queuedJob == null) {
+                if (startingJobIds.contains(jobId)) {
+                    terminatedJobIds.add(jobId);
+                }
+                return false;
+            }
+            PriorityQueue<QueuedJob> tenantQueue = tenantQueues.get(queuedJob.tenant);
+            tenantQueue.remove(queuedJob);
+            if (tenantQueue.isEmpty()) {
+                tenantQueues.remove(queuedJob.tenant);
+            }
+            if (queuedJob.batch != null) {
+                queuedJob.batch.queued--;
+                jobDone(queuedJob.batch);
+            }
+        }
+        // Outside the lock, as it sends the final event to the job's subscribers.
+        jobLauncher.cancel(jobId);
+        return true;
+    }
+
+    private void enqueue(QueuedJob queuedJob) {
+        tenantQueues.computeIfAbsent(queuedJob.tenant, t -> new PriorityQueue<>(QUEUE_ORDER)).add(queuedJob);
+        queuedJobs.put(queuedJob.jobId, queuedJob);
+    }
+
+    /**
+     * Takes the next queued jobs for as many solvers as are free.
+     * A job that needs more solvers than are free blocks the jobs after it, so it isn't starved by smaller ones.
+     *
+     * @return the jobs to {@link #start(List) start} once the lock is released
+     */
+    private List<QueuedJob> dispatch() {
+        List<QueuedJob> dispatchedJobs = new ArrayList<>();
+        while (!tenantQueues.isEmpty()) {
+            String nextTenant = nextTenant();
+            if (solvingWeight + tenantQueues.get(nextTenant).peek().weight > maxSolvingJobs) {
+                break;
+            }
+            QueuedJob next = poll(nextTenant);
+            queuedJobs.remove(next.jobId);
+            if (next.batch != null) {
+                next.batch.queued--;
+                next.batch.solving++;
+            }
+            solvingJobs.put(next.jobId, next);
+            solvingWeight += next.weight;
+            startingJobIds.add(next.jobId);
+            dispatchedJobs.add(next);
+        }
+        return dispatchedJobs;
+    }
+
+    /**
+     * Launches dispatched jobs without holding the lock, since launching can split or copy the problem.
+     * A job that fails to launch is {@link JobLauncher#cancel(String) cancelled}, and its solver goes to the next queued job.
+     */
+    private void start(List<QueuedJob> dispatchedJobs) {
+        Deque<QueuedJob> pending = new ArrayDeque<>(dispatchedJobs);
+        while (!pending.isEmpty()) {
+            QueuedJob next = pending.removeFirst();
+            boolean launched = true;
+            int started = next.weight;
+            try {
+                started = next.launch.applyAsInt(() -> solved(next.jobId));
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed submitting jobId ({}) of tenant ({}).", next.jobId, next.tenant, e);
+                launched = false;
+            }
+            boolean terminated;
+            synchronized (this) {
+                startingJobIds.remove(next.jobId);
+                terminated = terminatedJobIds.remove(next.jobId);
+                if (!launched) {
+                    solvingJobs.remove(next.jobId);
+                    solvingWeight -= next.weight;
+                    if (next.batch != null) {
+                        next.batch.solving--;
+                        jobDone(next.batch);
+                    }
+                    pending.addAll(dispatch());
+                } else if (started < next.weight && solvingJobs.get(next.jobId) == next) {
+                    // Like a partitioned job that was split into fewer partitions than it could have.
+                    solvingJobs.put(next.jobId, next.withWeight(Math.max(1, started)));
+                    solvingWeight -= next.weight - Math.max(1, started);
+                    pending.addAll(dispatch());
+                }
+            }
+            if (!launched) {
+                jobLauncher.cancel(next.jobId);
+            } else if (terminated) {
+                jobLauncher.terminateEarly(next.jobId);
+            }
+        }
+    }
+
+    /**
+     * @return the tenant whose queued job is next
+     */
+    private String nextTenant() {
+        String nextTenant = null;
+        QueuedJob next = null;
+        for (Map.Entry<String, PriorityQueue<QueuedJob>> entry : tenantQueues.entrySet()) {
+            QueuedJob head = entry.getValue().peek();
+            // Strictly higher only, so the tenant that waited longest wins ties.
+            if (next == null || head.priority > next.priority) {
+                nextTenant = entry.getKey();
+                next = head;
+            }
+        }
+        return nextTenant;
+    }
+
+    private QueuedJob poll(String tenant) {
+        // Moves the tenant to the back of the rotation.
+        PriorityQueue<QueuedJob> tenantQueue = tenantQueues.remove(tenant);
+        QueuedJob next = tenantQueue.poll();
+        if (!tenantQueue.isEmpty()) {
+            tenantQueues.put(tenant, tenantQueue);
+        }
+        return next;
+    }
+
+    private void solved(String jobId) {
+        List<QueuedJob> dispatchedJobs;
+        synchronized (this) {
+            QueuedJob solved = solvingJobs.remove(jobId);
+            if (solved == null) {
+                return;
+            }
+            solvingWeight -= solved.weight;
+            if (solved.batch != null) {
+                solved.batch.solving--;
+                jobDone(solved.batch);
+            }
+            dispatchedJobs = dispatch();
+        }
+        start(dispatchedJobs);
+    }
+
+    private void jobDone(Batch batch) {
+        batch.finished++;
+        if (batch.queued == 0 && batch.solving == 0) {
+            LOGGER.info("Finished batch ({}) of tenant ({}).", batch.id, batch.tenant);
+            finishedBatchIds.addLast(batch.id);
+            while (finishedBatchIds.size() > maxFinishedBatches) {
+                batches.remove(finishedBatchIds.removeFirst());
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        private final String id;
+        private final String tenant;
+        private final int priority;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<String> jobIds = new ArrayList<>();
+        private int queued = 0;
+        private int solving = 0;
+        private int finished = 0;
+
+        private Batch(String id, String tenant, int priority) {
+            this.id = id;
+            this.tenant = tenant;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * @param batch null for a single job
+     * @param weight the solvers the job takes
+     */
+    private record QueuedJob(String jobId, Batch batch, String tenant, int priority, int weight, long sequence,
+                             ToIntFunction<Runnable> launch) {
+
+        QueuedJob withWeight(int weight) {
+            return new QueuedJob(jobId, batch, tenant, priority, weight, sequence, launch);
+        }
+    }
+}
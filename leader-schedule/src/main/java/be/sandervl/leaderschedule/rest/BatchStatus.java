@@ -0,0 +1,15 @@
+package be.sandervl.leaderschedule.rest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The aggregate progress of a batch. Use the job IDs with the schedule endpoints for the details of each job.
+ *
+ * @param queued jobs waiting for a free solver
+ * @param solving jobs submitted to the solver
+ * @param finished jobs that finished, failed or were terminated
+ */
+public record BatchStatus(String batchId, String tenant, int priority, LocalDateTime createdAt,
+        int queued, int solving, int finished, List<String> jobIds) {
+}
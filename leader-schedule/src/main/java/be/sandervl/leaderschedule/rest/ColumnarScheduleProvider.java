@@ -0,0 +1,69 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.ColumnarScheduleCodec;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.rest.exception.ScheduleSolverException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes schedules as {@value #MEDIA_TYPE}, the {@link ColumnarScheduleCodec} layout,
+ * for organizations whose schedules are too large to send around as JSON.
+ */
+@Provider
+@Consumes(ColumnarScheduleProvider.MEDIA_TYPE)
+@Produces(ColumnarScheduleProvider.MEDIA_TYPE)
+public class ColumnarScheduleProvider implements MessageBodyReader<LeaderScheduleSolution>, MessageBodyWriter<LeaderScheduleSolution> {
+
+    public static final String MEDIA_TYPE = "application/x-leader-schedule";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == LeaderScheduleSolution.class;
+    }
+
+    @Override
+    public LeaderScheduleSolution readFrom(Class<LeaderScheduleSolution> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        try {
+            return ColumnarScheduleCodec.read(new DataInputStream(new BufferedInputStream(entityStream, BUFFER_SIZE)));
+        } catch (EOFException e) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, "The columnar schedule is truncated.");
+        } catch (IllegalArgumentException e) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == LeaderScheduleSolution.class;
+    }
+
+    @Override
+    public void writeTo(LeaderScheduleSolution schedule, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        var out = new DataOutputStream(new BufferedOutputStream(entityStream, BUFFER_SIZE));
+        ColumnarScheduleCodec.write(schedule, out);
+        // Flushed but not closed, the container owns the stream.
+        out.flush();
+    }
+}
@@ -0,0 +1,11 @@
+package be.sandervl.leaderschedule.rest;
+
+/**
+ * How one constraint performed in a profiled job.
+ *
+ * @param evaluationNanos the time spent in the predicates and weighers of the constraint, summed over all invocations
+ * @param invocationCount how many times its predicates and weighers were called
+ * @param matchCount how many times the best solution so far matches the constraint
+ */
+public record ConstraintProfile(String constraintName, long evaluationNanos, long invocationCount, int matchCount) {
+}
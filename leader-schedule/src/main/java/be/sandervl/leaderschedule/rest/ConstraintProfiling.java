@@ -0,0 +1,175 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.score.director.ScoreDirectorFactoryConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.solver.ConstraintProfiler;
+import be.sandervl.leaderschedule.solver.IncrementalLeaderScheduleConstraintProvider;
+import be.sandervl.leaderschedule.solver.ProfilingConstraintProvider;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The constraint profiles of profiled jobs, and the solver manager that solves them.
+ * A job is profiled if it is submitted with {@code profile=true}, or every job, including batch and resolve jobs, if
+ * {@code leader-schedule.profiling.enabled} is set.
+ * <p>
+ * Profiled jobs are solved by a separate solver manager with the {@link ProfilingConstraintProvider} and without move threads,
+ * created the first time a job is profiled, so jobs that aren't profiled pay nothing for it.
+ * It solves at most {@code leader-schedule.profiling.parallel-solver-count} jobs at once, next to the regular solver manager,
+ * the other profiled jobs wait for it.
+ * The profiles of the last {@code leader-schedule.profiling.max-profiles} profiled jobs are kept.
+ * <p>
+ * The match counts of a profile come from a full analysis of the job's best solution, which is only redone once
+ * {@code leader-schedule.profiling.match-count-interval} has passed while the job is solving.
+ */
+@ApplicationScoped
+public class ConstraintProfiling {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConstraintProfiling.class);
+
+    private final SolverManager<LeaderScheduleSolution, String> solverManager;
+    private final SolverConfig solverConfig;
+    private final boolean enabled;
+    private final int maxProfiles;
+    private final int parallelSolverCount;
+    private final long matchCountIntervalNanos;
+    // The profiled jobs that are still solving, whose solver manager is the profiling one.
+    private final Set<String> solvingJobIds = ConcurrentHashMap.newKeySet();
+
+    // All guarded by this.
+    private final Map<String, ConstraintProfiler> profilers = new LinkedHashMap<>();
+    private final Map<String, MatchCounts> matchCountsByJob = new HashMap<>();
+    private SolverManager<LeaderScheduleSolution, String> profilingSolverManager = null;
+
+    @Inject
+    public ConstraintProfiling(SolverManager<LeaderScheduleSolution, String> solverManager,
+                               SolverConfig solverConfig,
+                               @ConfigProperty(name = "leader-schedule.profiling.enabled", defaultValue = "false") boolean enabled,
+                               @ConfigProperty(name = "leader-schedule.profiling.max-profiles", defaultValue = "100") int maxProfiles,
+                               @ConfigProperty(name = "leader-schedule.profiling.parallel-solver-count", defaultValue = "1") int parallelSolverCount,
+                               @ConfigProperty(name = "leader-schedule.profiling.match-count-interval", defaultValue = "10s") Duration matchCountInterval) {
+        if (parallelSolverCount < 1) {
+            throw new IllegalArgumentException("The profiling parallel solver count (" + parallelSolverCount
+                    + ") must be at least 1.");
+        }
+        this.solverManager = solverManager;
+        this.solverConfig = solverConfig;
+        this.enabled = enabled;
+        this.maxProfiles = maxProfiles;
+        this.parallelSolverCount = parallelSolverCount;
+        this.matchCountIntervalNanos = matchCountInterval.toNanos();
+    }
+
+    /**
+     * @return true if every job is profiled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers a new profile for a job that is about to be launched on {@link #getProfilingSolverManager()}.
+     */
+    public synchronized ConstraintProfiler start(String jobId) {
+        var profiler = new ConstraintProfiler();
+        profilers.put(jobId, profiler);
+        var iterator = profilers.keySet().iterator();
+        matchCountsByJob.remove(jobId);
+        while (profilers.size() > maxProfiles) {
+            matchCountsByJob.remove(iterator.next());
+            iterator.remove();
+        }
+        solvingJobIds.add(jobId);
+        return profiler;
+    }
+
+    /**
+     * Called once a profiled job finished or failed.
+     */
+    public void ended(String jobId) {
+        solvingJobIds.remove(jobId);
+    }
+
+    /**
+     * @return null if the job isn't profiled, or its profile is no longer kept
+     */
+    public synchronized ConstraintProfiler getProfiler(String jobId) {
+        return profilers.get(jobId);
+    }
+
+    /**
+     * @param bestSolution the job's best solution so far
+     * @param solving true if the best solution can still change
+     * @param counter counts the matches of every constraint of the best solution, called outside of the lock
+     * @return the match counts of the best solution, or of an earlier one if that's less than the interval old
+     * and the job is still solving
+     */
+    public Map<String, Integer> getMatchCounts(String jobId, LeaderScheduleSolution bestSolution, boolean solving,
+                                               Supplier<Map<String, Integer>> counter) {
+        synchronized (this) {
+            MatchCounts matchCounts = matchCountsByJob.get(jobId);
+            if (matchCounts != null && (matchCounts.source == bestSolution
+                    || (solving && System.nanoTime() - matchCounts.countedNanos < matchCountIntervalNanos))) {
+                return matchCounts.counts;
+            }
+        }
+        var matchCounts = new MatchCounts(bestSolution, System.nanoTime(), counter.get());
+        synchronized (this) {
+            // Don't bring back the counts of a profile that was dropped meanwhile.
+            if (profilers.containsKey(jobId)) {
+                matchCountsByJob.put(jobId, matchCounts);
+            }
+        }
+        return matchCounts.counts;
+    }
+
+    /**
+     * @return the solver manager to terminate the job or add problem changes to
+     */
+    public SolverManager<LeaderScheduleSolution, String> getSolverManager(String jobId) {
+        return solvingJobIds.contains(jobId) ? getProfilingSolverManager() : solverManager;
+    }
+
+    public synchronized SolverManager<LeaderScheduleSolution, String> getProfilingSolverManager() {
+        if (profilingSolverManager == null) {
+            Class<?> constraintProviderClass = solverConfig.getScoreDirectorFactoryConfig() == null ? null
+                    : solverConfig.getScoreDirectorFactoryConfig().getConstraintProviderClass();
+            if (constraintProviderClass != IncrementalLeaderScheduleConstraintProvider.class) {
+                LOGGER.warn("Profiled jobs are scored by the constraints of {}, instead of the configured {}.",
+                        IncrementalLeaderScheduleConstraintProvider.class.getSimpleName(), constraintProviderClass);
+            }
+            SolverConfig profilingConfig = solverConfig.copyConfig()
+                    .withScoreDirectorFactory(new ScoreDirectorFactoryConfig()
+                            .withConstraintProviderClass(ProfilingConstraintProvider.class))
+                    .withMoveThreadCount(SolverConfig.MOVE_THREAD_COUNT_NONE);
+            profilingSolverManager = SolverManager.create(profilingConfig,
+                    new SolverManagerConfig().withParallelSolverCount(Integer.toString(parallelSolverCount)));
+        }
+        return profilingSolverManager;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (profilingSolverManager != null) {
+            profilingSolverManager.close();
+        }
+    }
+
+    private record MatchCounts(LeaderScheduleSolution source, long countedNanos, Map<String, Integer> counts) {
+    }
+}
@@ -1,19 +1,19 @@
 package be.sandervl.leaderschedule.rest;
 
 import be.sandervl.leaderschedule.domain.Affinity;
-import be.sandervl.leaderschedule.domain.Group;
 import be.sandervl.leaderschedule.domain.Leader;
 import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVRecord;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,184 +21,46 @@ import java.util.Set;
 @ApplicationScoped
 public class DemoDataGenerator {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DemoDataGenerator.class);
+
+    private final RosterImporter rosterImporter;
+
+    @Inject
+    public DemoDataGenerator(RosterImporter rosterImporter) {
+        this.rosterImporter = rosterImporter;
+    }
+
     public LeaderScheduleSolution generateDemoData() {
         var plan = new LeaderScheduleSolution();
         List<Leader> leaders = loadLeadersFromCsv();
 
-        var groups = List.of(
-                new Group("Speelclub", 2, 4),
-                new Group("Rakkers", 2, 3),
-                new Group("Toppers", 2, 2),
-                new Group("Kerels", 1, 2),
-                new Group("Aspiranten", 1, 2)
-        );
+        var groups = RosterImporter.defaultGroups();
 
         // Update the plan
         Collections.shuffle(leaders);
         plan.setLeaders(leaders);
         plan.setGroups(groups);
+        plan.compileProblemFacts();
         return plan;
     }
 
     private List<Leader> loadLeadersFromCsv() {
-        List<Leader> leaders = new ArrayList<>();
-        Map<String, Leader> leaderMap = new HashMap<>();
-
-        // Store preference data for processing after all leaders are created
-        Map<String, String> preferredLeaderData = new HashMap<>();
-        Map<String, String> unwantedLeaderData = new HashMap<>();
-
-        try (var inputStream = getClass().getClassLoader().getResourceAsStream("answers.csv");
-             var reader = new InputStreamReader(inputStream, "UTF-8")) {
-
-            var csvFormat = CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .build();
-
-            var csvParser = csvFormat.parse(reader);
-
-            // Single pass: create all leaders and collect preference data
-            for (CSVRecord record : csvParser) {
-                String name = record.get("Naam");
-                String wantsLeadership = record.get("Ik wil volgend jaar in leiding staan");
-
-                // Filter out those who don't want to be in leadership
-                if (!"Ja".equalsIgnoreCase(wantsLeadership)) {
-                    continue;
-                }
-
-                String firstChoice = record.get("Mijn eerste keuze van groep");
-                String secondChoice = record.get("Mijn tweede keuze van groep");
-                String thirdChoice = record.get("Mijn derde keuze van groep");
-
-                // Create leader with default experience level (can be adjusted)
-                Leader leader = new Leader(name, record.get("experience") != null ? Integer.parseInt(record.get("experience")) : 0);
-
-                // Build affinity map based on preferences
-                Map<String, Affinity> affinityMap = new HashMap<>();
-
-                if (firstChoice != null && !firstChoice.trim().isEmpty()) {
-                    affinityMap.put(firstChoice.trim(), Affinity.HIGH);
-                }
-                if (secondChoice != null && !secondChoice.trim().isEmpty() && !affinityMap.containsKey(secondChoice)) {
-                    affinityMap.put(secondChoice.trim(), Affinity.MEDIUM);
-                }
-                if (thirdChoice != null && !thirdChoice.trim().isEmpty() && !affinityMap.containsKey(thirdChoice)) {
-                    affinityMap.put(thirdChoice.trim(), Affinity.LOW);
-                }
-
-                leader.setGroupAffinityMap(affinityMap);
-                leaders.add(leader);
-                leaderMap.put(name.trim(), leader);
-
-                // Collect preference data for later processing
-                String wantsToWorkWith = record.get("Is er een leider waar je graag mee in leiding zou staan?");
-                if ("Ja".equalsIgnoreCase(wantsToWorkWith)) {
-                    String preferredLeaderNames = record.get(7);
-                    if (preferredLeaderNames != null && !preferredLeaderNames.trim().isEmpty()) {
-                        preferredLeaderData.put(name, preferredLeaderNames);
-                    }
-                }
-
-                String doesntWantToWorkWith = record.get("Is er een leider waar je niet graag mee in leiding zou staan?");
-                if ("Ja".equalsIgnoreCase(doesntWantToWorkWith)) {
-                    String unwantedLeaderNames = record.get(9);
-                    if (unwantedLeaderNames != null && !unwantedLeaderNames.trim().isEmpty()) {
-                        unwantedLeaderData.put(name, unwantedLeaderNames);
-                    }
-                }
-            }
-
-            // Now process the preference data after all leaders are created
-            for (Map.Entry<String, String> entry : preferredLeaderData.entrySet()) {
-                Leader currentLeader = leaderMap.get(entry.getKey());
-                if (currentLeader != null) {
-                    Set<Leader> preferredLeaders = parseLeaderNames(entry.getValue(), leaderMap);
-                    if (!preferredLeaders.isEmpty()) {
-                        currentLeader.setPreferredLeaders(preferredLeaders);
-                    }
-                }
-            }
-
-            for (Map.Entry<String, String> entry : unwantedLeaderData.entrySet()) {
-                Leader currentLeader = leaderMap.get(entry.getKey());
-                if (currentLeader != null) {
-                    Set<Leader> unwantedLeaders = parseLeaderNames(entry.getValue(), leaderMap);
-                    if (!unwantedLeaders.isEmpty()) {
-                        currentLeader.setUnwantedLeaders(unwantedLeaders);
-                    }
-                }
-            }
-
-        } catch (IOException e) {
-            // Fallback to hardcoded data if CSV loading fails
-            System.err.println("Failed to load CSV data, using fallback data: " + e.getMessage());
+        var inputStream = getClass().getClassLoader().getResourceAsStream("answers.csv");
+        if (inputStream == null) {
+            LOGGER.warn("No CSV data found, using fallback data.");
             return createFallbackLeaders();
         }
-
-        return leaders;
-    }
-
-    private Set<Leader> parseLeaderNames(String leaderNames, Map<String, Leader> leaderMap) {
-        Set<Leader> leaders = new HashSet<>();
-
-        // Split by common separators (comma, semicolon, "en", "and")
-        String[] names = leaderNames.split("[,;]|\\ben\\b|\\band\\b");
-
-        for (String name : names) {
-            String trimmedName = name.trim();
-            if (!trimmedName.isEmpty()) {
-                // Try exact match first
-                Leader leader = leaderMap.get(trimmedName);
-                if (leader != null) {
-                    leaders.add(leader);
-                } else {
-                    // Try case-insensitive match
-                    for (Map.Entry<String, Leader> entry : leaderMap.entrySet()) {
-                        if (entry.getKey().equalsIgnoreCase(trimmedName)) {
-                            leaders.add(entry.getValue());
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-
-        // Log if not all names could be matched to a Leader
-        if (leaders.size() < names.length) {
-            System.out.println("[parseLeaderNames] Mismatch: requested names='" + leaderNames + "', splitCount=" + names.length + ", matchedLeaders=" + leaders.size() + ", unmatchedNames=" + getUnmatchedNames(names, leaders, leaderMap) + ", leaderMapKeys=" + leaderMap.keySet());
-        }
-
-        return leaders;
-    }
-
-    // Helper to get unmatched names for logging
-    private List<String> getUnmatchedNames(String[] names, Set<Leader> matchedLeaders, Map<String, Leader> leaderMap) {
-        List<String> unmatched = new ArrayList<>();
-        Set<String> matchedNames = new HashSet<>();
-        for (Leader l : matchedLeaders) {
-            matchedNames.add(l.getFullName());
-        }
-        for (String name : names) {
-            String trimmedName = name.trim();
-            if (!trimmedName.isEmpty()) {
-                boolean found = matchedNames.contains(trimmedName);
-                if (!found) {
-                    boolean ciFound = false;
-                    for (String key : leaderMap.keySet()) {
-                        if (key.equalsIgnoreCase(trimmedName)) {
-                            ciFound = true;
-                            break;
-                        }
-                    }
-                    if (!ciFound) {
-                        unmatched.add(trimmedName);
-                    }
-                }
+        try (var reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            RosterImport roster = rosterImporter.read(reader, List.of());
+            if (!roster.unmatchedNames().isEmpty()) {
+                LOGGER.debug("Unmatched preferred or unwanted names per leader: {}.", roster.unmatchedNames());
             }
+            return new ArrayList<>(roster.schedule().getLeaders());
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            // Fallback to hardcoded data if CSV loading fails
+            LOGGER.warn("Failed to load CSV data, using fallback data.", e);
+            return createFallbackLeaders();
         }
-        return unmatched;
     }
 
     private List<Leader> createFallbackLeaders() {
@@ -0,0 +1,41 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.time.LocalDateTime;
+
+record Job(LeaderScheduleSolution schedule, LocalDateTime createdAt, Throwable exception, AssignmentLog assignments,
+        JobProgress progress) {
+
+    static Job ofSchedule(LeaderScheduleSolution schedule) {
+        return new Job(schedule, LocalDateTime.now(), null, new AssignmentLog(schedule),
+                new JobProgress(schedule));
+    }
+
+    /**
+     * A job read back from the {@link JobJournal}, with a fresh progress and assignment log.
+     */
+    static Job restored(LeaderScheduleSolution schedule, LocalDateTime createdAt, boolean finished) {
+        var job = new Job(schedule, createdAt, null, new AssignmentLog(schedule), new JobProgress(schedule));
+        if (finished) {
+            job.progress().finished(schedule);
+        }
+        return job;
+    }
+
+    /**
+     * The same job solving again from the given schedule, with a fresh progress.
+     * The assignment log carries on, so clients can keep asking for changes since their last version.
+     */
+    Job reopened(LeaderScheduleSolution schedule) {
+        return new Job(schedule, createdAt, null, assignments, new JobProgress(schedule));
+    }
+
+    Job withSchedule(LeaderScheduleSolution schedule) {
+        return new Job(schedule, createdAt, null, assignments, progress);
+    }
+
+    Job withException(Throwable error) {
+        return new Job(null, createdAt, error, assignments, progress);
+    }
+}
@@ -0,0 +1,540 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.ColumnarScheduleCodec;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the best solutions of jobs to an append-only, memory-mapped log in {@code leader-schedule.journal.directory},
+ * so finished jobs survive a restart without being kept on the heap, and solving jobs can be resumed.
+ * Disabled if no directory is configured.
+ * <p>
+ * Every record holds the whole schedule of one job, in the {@link ColumnarScheduleCodec} layout, and whether it is
+ * still solving, finished or removed. Only the position and the score of the latest record of every job are kept in memory,
+ * so the status of a finished job is answered without reading its schedule back.
+ * A solving job is written at most once per {@code snapshot-interval}, its final solution always.
+ * Records are written to the mapped file, so they survive the process crashing, and forced to disk every
+ * {@code flush-interval}, so they survive the machine crashing too.
+ * <p>
+ * Every {@code expiry-interval}, finished jobs older than {@code time-to-live} are forgotten, so their records count
+ * as dead like superseded ones. Once the log is larger than {@code min-compaction-size} and less than half of it is
+ * the latest record of a job, it is compacted on a background thread: the latest records are copied into a new log
+ * that replaces the old one, dropping removed and expired jobs. Appending only waits for the records appended
+ * while compacting to be copied too, and for the swap.
+ * <p>
+ * A record is {@code [int length][int crc32][body]}, with its length written last,
+ * so a record that is cut off by a crash has length 0 and marks the end of the log.
+ */
+@ApplicationScoped
+public class JobJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobJournal.class);
+
+    private static final String FILE_NAME = "jobs.journal";
+    private static final int MAGIC = 0x4C534A32; // "LSJ2"
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte SOLVING = 1;
+    private static final byte FINISHED = 2;
+    private static final byte REMOVED = 3;
+
+    private final Path file;
+    private final long snapshotIntervalNanos;
+    private final long regionBytes;
+    private final long minCompactionBytes;
+    private final Duration timeToLive;
+    private final ScheduledExecutorService executor;
+
+    // All guarded by this.
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long end;
+    private long liveBytes = 0L;
+    private boolean dirty = false;
+    private boolean compactionScheduled = false;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    @Inject
+    public JobJournal(@ConfigProperty(name = "leader-schedule.journal.directory") Optional<String> directory,
+                      @ConfigProperty(name = "leader-schedule.journal.snapshot-interval", defaultValue = "5s") Duration snapshotInterval,
+                      @ConfigProperty(name = "leader-schedule.journal.flush-interval", defaultValue = "1s") Duration flushInterval,
+                      @ConfigProperty(name = "leader-schedule.journal.region-size", defaultValue = "64M") MemorySize regionSize,
+                      @ConfigProperty(name = "leader-schedule.journal.min-compaction-size", defaultValue = "64M") MemorySize minCompactionSize,
+                      @ConfigProperty(name = "leader-schedule.journal.time-to-live", defaultValue = "7d") Duration timeToLive,
+                      @ConfigProperty(name = "leader-schedule.journal.expiry-interval", defaultValue = "1h") Duration expiryInterval) {
+        this.file = directory.map(path -> Path.of(path, FILE_NAME)).orElse(null);
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+        this.regionBytes = regionSize.asLongValue();
+        this.minCompactionBytes = minCompactionSize.asLongValue();
+        this.timeToLive = timeToLive;
+        if (file == null) {
+            this.executor = null;
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed opening the job journal (" + file + ").", e);
+        }
+        LOGGER.info("Journaling jobs to ({}), {} jobs recovered.", file, entries.size());
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "job-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushIntervalNanos = flushInterval.toNanos();
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS);
+        // Right away too, the recovered log may need compacting.
+        executor.scheduleWithFixedDelay(this::expireAndCompact, 0L, expiryInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed closing the job journal ({}).", file, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Records the current best solution of a job that is scheduled or solving,
+     * unless it was recorded less than {@code snapshot-interval} ago, or the job finished meanwhile.
+     *
+     * @param force true to record it regardless, like when the job is submitted or reopened after it finished
+     */
+    public void solving(String jobId, Job job, boolean force) {
+        if (file == null || job.schedule() == null) {
+            return;
+        }
+        int generation;
+        synchronized (this) {
+            Entry entry = entries.get(jobId);
+            if (force) {
+                // Every submit starts a new generation, the snapshots of an earlier one are dropped from then on.
+                generation = entry == null ? 0 : entry.generation + 1;
+            } else {
+                // Recovered entries weren't written by this process, their written time is 0.
+                if (entry == null || entry.type != SOLVING || (entry.writtenNanos != 0L
+                        && System.nanoTime() - entry.writtenNanos < snapshotIntervalNanos)) {
+                    return;
+                }
+                generation = entry.generation;
+            }
+        }
+        append(jobId, SOLVING, generation, !force, job.createdAt(), job.schedule());
+    }
+
+    /**
+     * Records the final solution of a job, or forgets a job that failed, since it has no solution to resume from.
+     */
+    public void finished(String jobId, Job job) {
+        if (file == null) {
+            return;
+        }
+        int generation;
+        synchronized (this) {
+            Entry entry = entries.get(jobId);
+            generation = entry == null ? 0 : entry.generation;
+        }
+        if (job.schedule() == null) {
+            append(jobId, REMOVED, generation, false, job.createdAt(), null);
+        } else {
+            append(jobId, FINISHED, generation, false, job.createdAt(), job.schedule());
+        }
+    }
+
+    /**
+     * @return the IDs of the jobs in the journal, in no particular order
+     */
+    public synchronized Set<String> getJobIds() {
+        Set<String> jobIds = new LinkedHashSet<>();
+        entries.forEach((jobId, entry) -> {
+            if (entry.type != REMOVED) {
+                jobIds.add(jobId);
+            }
+        });
+        return jobIds;
+    }
+
+    /**
+     * @return the IDs of the jobs that were still solving when they were last recorded
+     */
+    public synchronized List<String> getSolvingJobIds() {
+        List<String> jobIds = new ArrayList<>();
+        entries.forEach((jobId, entry) -> {
+            if (entry.type == SOLVING) {
+                jobIds.add(jobId);
+            }
+        });
+        return jobIds;
+    }
+
+    /**
+     * @return the status of a finished job as it was journaled, null if the journal has no finished job with that ID
+     */
+    public synchronized JobStatus getFinishedStatus(String jobId) {
+        Entry entry = entries.get(jobId);
+        if (entry == null || entry.type != FINISHED) {
+            return null;
+        }
+        return new JobStatus(entry.score, SolverStatus.NOT_SOLVING, 0L, 0L, 0L, null);
+    }
+
+    /**
+     * Reads the latest solution of a job back from the journal, a new instance every time.
+     * Its problem facts are not compiled.
+     *
+     * @return null if the journal has no solution of the job
+     */
+    public JournaledJob load(String jobId) {
+        if (file == null) {
+            return null;
+        }
+        byte[] body;
+        synchronized (this) {
+            Entry entry = entries.get(jobId);
+            if (entry == null || entry.type == REMOVED) {
+                return null;
+            }
+            body = new byte[entry.length];
+            buffer.get((int) (entry.offset + RECORD_HEADER_BYTES), body);
+        }
+        try (var in = new DataInputStream(new ByteArrayInputStream(body))) {
+            byte type = in.readByte();
+            in.readUTF(); // The job ID.
+            LocalDateTime createdAt = LocalDateTime.parse(in.readUTF());
+            readScore(in);
+            return new JournaledJob(createdAt, type == FINISHED, ColumnarScheduleCodec.read(in));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed reading jobId ({}) from the job journal ({}).", jobId, file, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param generation the generation of the job the record belongs to, a record of an older generation is dropped
+     * @param snapshot true if the record is dropped unless the job is still solving in the same generation
+     */
+    private void append(String jobId, byte type, int generation, boolean snapshot, LocalDateTime createdAt,
+                        LeaderScheduleSolution schedule) {
+        // Encoded outside the lock, it takes longer than copying it into the log.
+        String score = schedule == null || schedule.getScore() == null ? null : schedule.getScore().toString();
+        byte[] body;
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            out.writeUTF(jobId);
+            out.writeUTF(createdAt.toString());
+            out.writeBoolean(score != null);
+            if (score != null) {
+                out.writeUTF(score);
+            }
+            if (schedule != null) {
+                ColumnarScheduleCodec.write(schedule, out);
+            }
+            out.flush();
+            body = bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed journaling jobId ({}).", jobId, e);
+            return;
+        }
+        var crc = new CRC32();
+        crc.update(body);
+        synchronized (this) {
+            Entry previous = entries.get(jobId);
+            boolean superseded = snapshot
+                    ? previous == null || previous.type != SOLVING || previous.generation != generation
+                    : previous != null && previous.generation > generation;
+            if (superseded) {
+                // Encoded while the job finished, was forgotten or was submitted again.
+                return;
+            }
+            try {
+                ensureCapacity(RECORD_HEADER_BYTES + body.length);
+                int offset = (int) end;
+                buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+                buffer.put(offset + RECORD_HEADER_BYTES, body);
+                // Last, so a cut off record isn't read back.
+                buffer.putInt(offset, body.length);
+                end += RECORD_HEADER_BYTES + body.length;
+                dirty = true;
+                index(jobId, new Entry(offset, body.length, type, generation, createdAt, score, System.nanoTime()));
+                if (!compactionScheduled && needsCompaction()) {
+                    compactionScheduled = true;
+                    executor.execute(this::compact);
+                }
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+                compactionScheduled = false;
+            } catch (IOException e) {
+                LOGGER.error("Failed journaling jobId ({}) to ({}).", jobId, file, e);
+            }
+        }
+    }
+
+    private void index(String jobId, Entry entry) {
+        Entry previous = entries.put(jobId, entry);
+        if (previous != null) {
+            liveBytes -= previous.recordBytes();
+        }
+        liveBytes += entry.recordBytes();
+    }
+
+    private boolean needsCompaction() {
+        return end > minCompactionBytes && liveBytes * 2 < end;
+    }
+
+    /**
+     * @return the bytes of the log in use, including its header and superseded records
+     */
+    synchronized long getLogBytes() {
+        return end;
+    }
+
+    private synchronized void flush() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), regionBytes);
+        map(size);
+        if (channel.size() == 0L || buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file (" + file + ") isn't a job journal.");
+        }
+        end = HEADER_BYTES;
+        entries.clear();
+        liveBytes = 0L;
+        recover();
+        expire();
+    }
+
+    /**
+     * Forgets the finished jobs older than time-to-live, whose records are then dropped by the next compaction.
+     */
+    private void expire() {
+        LocalDateTime expired = LocalDateTime.now().minus(timeToLive);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.type == FINISHED && entry.createdAt.isBefore(expired)) {
+                liveBytes -= entry.recordBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void expireAndCompact() {
+        synchronized (this) {
+            expire();
+        }
+        compact();
+    }
+
+    /**
+     * Indexes the records up to the first one that is cut off or corrupt, and clears everything after it.
+     */
+    private void recover() {
+        var crc = new CRC32();
+        while (end + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int offset = (int) end;
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + (long) length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(offset + RECORD_HEADER_BYTES, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                LOGGER.warn("Discarding the corrupt tail of the job journal ({}) from offset {}.", file, offset);
+                break;
+            }
+            try (var in = new DataInputStream(new ByteArrayInputStream(toArray(body)))) {
+                byte type = in.readByte();
+                String jobId = in.readUTF();
+                LocalDateTime createdAt = LocalDateTime.parse(in.readUTF());
+                // Generations only order the records of this process.
+                index(jobId, new Entry(offset, length, type, 0, createdAt, readScore(in), 0L));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Discarding the unreadable tail of the job journal ({}) from offset {}.", file, offset, e);
+                break;
+            }
+            end += RECORD_HEADER_BYTES + length;
+        }
+        // Older records after a cut off one could otherwise be read back once new records reach them.
+        for (long i = end; i < buffer.capacity(); i += Integer.BYTES) {
+            if (i + Integer.BYTES <= buffer.capacity() && buffer.getInt((int) i) != 0) {
+                buffer.putInt((int) i, 0);
+            }
+        }
+    }
+
+    private void ensureCapacity(int recordBytes) throws IOException {
+        if (end + recordBytes <= buffer.capacity()) {
+            return;
+        }
+        long size = buffer.capacity() + Math.max(regionBytes, recordBytes);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The job journal (" + file + ") can't grow beyond 2GB, lower the time-to-live.");
+        }
+        buffer.force();
+        map(size);
+    }
+
+    private void map(long size) throws IOException {
+        // Mapping beyond the end of the file grows it.
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+    }
+
+    /**
+     * Copies the latest record of every job into a new log that replaces this one, if less than half of it is live.
+     * Runs on the journal's own thread. The records known when it starts are copied without holding the lock,
+     * the records appended meanwhile are copied under the lock, right before the new log replaces this one.
+     */
+    private void compact() {
+        Map<String, Entry> copiedEntries;
+        MappedByteBuffer copiedBuffer;
+        long startEnd;
+        synchronized (this) {
+            compactionScheduled = false;
+            if (!channel.isOpen() || !needsCompaction()) {
+                return;
+            }
+            copiedEntries = new HashMap<>(entries);
+            // Records are never changed once appended, and a buffer stays readable after the log grows or is replaced.
+            copiedBuffer = buffer;
+            startEnd = end;
+        }
+        Path compacting = file.resolveSibling(FILE_NAME + ".compacting");
+        try (var out = FileChannel.open(compacting, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.allocate(HEADER_BYTES).putInt(0, MAGIC));
+            Map<String, Long> copiedOffsets = new HashMap<>();
+            long compactedEnd = HEADER_BYTES;
+            for (Map.Entry<String, Entry> mapEntry : copiedEntries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                if (entry.type == REMOVED) {
+                    continue;
+                }
+                out.write(copiedBuffer.slice((int) entry.offset, (int) entry.recordBytes()));
+                copiedOffsets.put(mapEntry.getKey(), compactedEnd);
+                compactedEnd += entry.recordBytes();
+            }
+            out.force(true);
+            synchronized (this) {
+                if (!channel.isOpen()) {
+                    return;
+                }
+                Map<String, Entry> compactedEntries = new HashMap<>();
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    if (entry.type == REMOVED) {
+                        continue;
+                    }
+                    Long offset = copiedOffsets.get(mapEntry.getKey());
+                    if (offset == null || !entry.equals(copiedEntries.get(mapEntry.getKey()))) {
+                        // Appended while compacting.
+                        out.write(buffer.slice((int) entry.offset, (int) entry.recordBytes()));
+                        offset = compactedEnd;
+                        compactedEnd += entry.recordBytes();
+                    }
+                    compactedEntries.put(mapEntry.getKey(),
+                            new Entry(offset, entry.length, entry.type, entry.generation, entry.createdAt, entry.score,
+                                    entry.writtenNanos));
+                }
+                out.force(true);
+                out.close();
+                LOGGER.info("Compacted the job journal ({}) from {} to {} bytes.", file, end, compactedEnd);
+                channel.close();
+                Files.move(compacting, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                map(Math.max(compactedEnd + regionBytes, regionBytes));
+                end = compactedEnd;
+                entries.clear();
+                entries.putAll(compactedEntries);
+                liveBytes = compactedEnd - HEADER_BYTES;
+                dirty = false;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed compacting the job journal ({}) of {} bytes.", file, startEnd, e);
+        }
+    }
+
+    private static String readScore(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param finished false if the job was still scheduled or solving
+     */
+    public record JournaledJob(LocalDateTime createdAt, boolean finished, LeaderScheduleSolution schedule) {
+    }
+
+    private record Entry(long offset, int length, byte type, int generation, LocalDateTime createdAt, String score,
+                         long writtenNanos) {
+
+        long recordBytes() {
+            return RECORD_HEADER_BYTES + (long) length;
+        }
+    }
+}
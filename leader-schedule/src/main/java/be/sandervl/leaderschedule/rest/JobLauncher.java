@@ -0,0 +1,598 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.solver.ConstraintProfiler;
+import be.sandervl.leaderschedule.solver.SchedulePartition;
+import be.sandervl.leaderschedule.solver.SchedulePartitioner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Submits jobs to the {@link SolverManager} and wires the solver callbacks
+ * to the {@link JobStore}, the job progress and the event subscribers.
+ */
+@ApplicationScoped
+public class JobLauncher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobLauncher.class);
+
+    private final SolverManager<LeaderScheduleSolution, String> solverManager;
+    private final JobStore jobStore;
+    private final ScheduleEventBroadcaster eventBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final TerminationConfig resolveTerminationConfig;
+    private final SolverPortfolio solverPortfolio;
+    private final TerminationPolicy terminationPolicy;
+    private final SolutionCache solutionCache;
+    private final JobJournal journal;
+    private final SolverMetrics solverMetrics;
+    private final ConstraintProfiling constraintProfiling;
+    private final int maxPartitions;
+    private final Duration portfolioTrailingLimit;
+    // The solver jobs of every partitioned or portfolio job that is still solving.
+    private final Map<String, List<SolverJob<LeaderScheduleSolution, String>>> severalSolverJobs = new ConcurrentHashMap<>();
+
+    @Inject
+    public JobLauncher(SolverManager<LeaderScheduleSolution, String> solverManager,
+                       JobStore jobStore,
+                       ScheduleEventBroadcaster eventBroadcaster,
+                       ObjectMapper objectMapper,
+                       SolverPortfolio solverPortfolio,
+                       TerminationPolicy terminationPolicy,
+                       SolutionCache solutionCache,
+                       JobJournal journal,
+                       SolverMetrics solverMetrics,
+                       ConstraintProfiling constraintProfiling,
+                       @ConfigProperty(name = "leader-schedule.resolve.spent-limit", defaultValue = "3s") Duration resolveSpentLimit,
+                       @ConfigProperty(name = "leader-schedule.resolve.unimproved-spent-limit", defaultValue = "500ms") Duration resolveUnimprovedSpentLimit,
+                       @ConfigProperty(name = "leader-schedule.partitioning.max-partitions") Optional<Integer> maxPartitions,
+                       @ConfigProperty(name = "leader-schedule.portfolio.trailing-limit", defaultValue = "1s") Duration portfolioTrailingLimit) {
+        this.solverManager = solverManager;
+        this.jobStore = jobStore;
+        this.eventBroadcaster = eventBroadcaster;
+        this.objectMapper = objectMapper;
+        this.solverPortfolio = solverPortfolio;
+        this.terminationPolicy = terminationPolicy;
+        this.solutionCache = solutionCache;
+        this.journal = journal;
+        this.solverMetrics = solverMetrics;
+        this.constraintProfiling = constraintProfiling;
+        this.resolveTerminationConfig = new TerminationConfig()
+                .withSpentLimit(resolveSpentLimit)
+                .withUnimprovedSpentLimit(resolveUnimprovedSpentLimit);
+        // Same as the solver manager's default parallel solver count, so all partitions solve at the same time.
+        this.maxPartitions = maxPartitions.orElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.portfolioTrailingLimit = portfolioTrailingLimit;
+    }
+
+    /**
+     * Registers the problem as a new job, without solving it yet.
+     * Compiles its problem facts, so it can come straight from JSON.
+     *
+     * @return the job ID
+     */
+    public String register(LeaderScheduleSolution problem) {
+        String jobId = UUID.randomUUID().toString();
+        problem.compileProblemFacts();
+        jobStore.add(jobId, Job.ofSchedule(problem));
+        return jobId;
+    }
+
+    /**
+     * Registers the jobs that were still solving when the application stopped, from their last journaled best solution,
+     * under their own job ID, to be resumed as regular jobs, even if they were partitioned or a portfolio.
+     *
+     * @return the IDs of the registered jobs, to {@link #launch(String, Runnable) launch}
+     */
+    public List<String> restoreJournaledJobs() {
+        if (!journal.isEnabled()) {
+            return List.of();
+        }
+        List<String> jobIds = new ArrayList<>();
+        for (String jobId : journal.getSolvingJobIds()) {
+            JobJournal.JournaledJob journaled = journal.load(jobId);
+            if (journaled == null) {
+                continue;
+            }
+            journaled.schedule().compileProblemFacts();
+            jobStore.add(jobId, Job.restored(journaled.schedule(), journaled.createdAt(), false));
+            LOGGER.info("Resuming jobId ({}) from its journaled best solution with score ({}).", jobId, journaled.schedule().getScore());
+            jobIds.add(jobId);
+        }
+        return jobIds;
+    }
+
+    /**
+     * Submits a registered job to the solver, which starts it as soon as a solver thread is free.
+     *
+     * @param whenDone called once solving has ended, whether it finished, was terminated or failed
+     * @return the number of solver jobs it started, which is 1 unless it is partitioned or a portfolio
+     */
+    public int launch(String jobId, Runnable whenDone) {
+        return launch(jobId, TerminationLimits.NONE, whenDone);
+    }
+
+    /**
+     * Like {@link #launch(String, Runnable)}, terminating on the given limits where set,
+     * on the {@link TerminationPolicy} for the size of the problem otherwise.
+     */
+    public int launch(String jobId, TerminationLimits limits, Runnable whenDone) {
+        launch(jobId, terminateOn(jobStore.get(jobId).schedule(), limits), false, whenDone);
+        return 1;
+    }
+
+    /**
+     * Like {@link #launch(String, TerminationLimits, Runnable)}, but records how long every constraint takes,
+     * see {@link ConstraintProfiling}.
+     */
+    public int launchProfiled(String jobId, TerminationLimits limits, Runnable whenDone) {
+        launch(jobId, terminateOn(jobStore.get(jobId).schedule(), limits), true, whenDone);
+        return 1;
+    }
+
+    /**
+     * Like {@link #launch(String, Runnable)}, for a job {@link #registerCopy(LeaderScheduleSolution) registered}
+     * from a copy of a previous solution, with a change applied to it as soon as the solver starts.
+     * Every leader starts in the group they had, so the solver only has to place new leaders and repair the change.
+     * It terminates on {@code leader-schedule.resolve.*} instead of the usual termination,
+     * since such a job typically converges long before.
+     */
+    public int launchResolve(String jobId, ProblemChange<LeaderScheduleSolution> change, Runnable whenDone) {
+        launch(jobId, new SolverConfigOverride<LeaderScheduleSolution>().withTerminationConfig(resolveTerminationConfig), false,
+                whenDone);
+        constraintProfiling.getSolverManager(jobId).addProblemChange(jobId, change);
+        return 1;
+    }
+
+    /**
+     * Solves a job that finished before a change could be added to it again, under the same job ID,
+     * from a copy of its best solution with the change applied as soon as the solver starts.
+     * Like {@link #launchResolve(String, ProblemChange, Runnable)}, it terminates on {@code leader-schedule.resolve.*}.
+     *
+     * If an earlier change made the job solve again already, the change is added to that.
+     *
+     * @return false if the job no longer exists or failed
+     * @throws IllegalStateException if the solver manager still holds on to the finished job, try again later
+     */
+    public synchronized boolean continueWith(String jobId, ProblemChange<LeaderScheduleSolution> change) {
+        Job job = jobStore.get(jobId);
+        if (job == null || job.exception() != null) {
+            return false;
+        }
+        if (jobStore.isActive(jobId)) {
+            constraintProfiling.getSolverManager(jobId).addProblemChange(jobId, change);
+            return true;
+        }
+        LeaderScheduleSolution schedule = copy(job.schedule());
+        schedule.compileProblemFacts();
+        jobStore.add(jobId, job.reopened(schedule));
+        try {
+            launch(jobId, new SolverConfigOverride<LeaderScheduleSolution>().withTerminationConfig(resolveTerminationConfig), false, () -> {
+            });
+        } catch (IllegalStateException e) {
+            solverMetrics.ended(jobId);
+            constraintProfiling.ended(jobId);
+            jobStore.finish(jobId, job);
+            throw e;
+        }
+        constraintProfiling.getSolverManager(jobId).addProblemChange(jobId, change);
+        return true;
+    }
+
+    /**
+     * Like {@link #launch(String, Runnable)}, but splits the problem into independent partitions first
+     * and solves each of them as a separate solver job, see {@link SchedulePartitioner}.
+     * The job's best solution merges the best solutions of all partitions, once every partition has one.
+     * Solved as a regular job if the problem can't be split.
+     * The termination of every partition scales with the size of that partition.
+     */
+    public int launchPartitioned(String jobId, TerminationLimits limits, Runnable whenDone) {
+        Job job = jobStore.get(jobId);
+        List<SchedulePartition> partitions = SchedulePartitioner.split(job.schedule(), maxPartitions);
+        if (partitions.size() <= 1) {
+            return launch(jobId, limits, whenDone);
+        }
+        LOGGER.info("Solving jobId ({}) as {} partitions.", jobId, partitions.size());
+        List<SolverJob<LeaderScheduleSolution, String>> solverJobs = new CopyOnWriteArrayList<>();
+        severalSolverJobs.put(jobId, solverJobs);
+        var solve = new PartitionedSolve(jobId, job, partitions, whenDone);
+        solverMetrics.launched(jobId, job);
+        for (int i = 0; i < partitions.size(); i++) {
+            int partition = i;
+            SolverJob<LeaderScheduleSolution, String> solverJob = solverManager.solveBuilder()
+                    .withConfigOverride(terminateOn(partitions.get(partition).problem(), limits))
+                    .withProblemId(jobId + "/" + partition)
+                    .withProblem(partitions.get(partition).problem())
+                    .withBestSolutionConsumer(solution -> solve.bestSolutionChanged(partition, solution))
+                    .withFinalBestSolutionConsumer(solution -> solve.finished(partition, solution))
+                    .withExceptionHandler((id, exception) -> solve.failed(exception))
+                    .run();
+            solverJobs.add(solverJob);
+            job.progress().started(solverJob);
+        }
+        return partitions.size();
+    }
+
+    /**
+     * @return the number of partitions a partitioned job has at most
+     */
+    public int getMaxPartitions() {
+        return maxPartitions;
+    }
+
+    /**
+     * @return the number of members a portfolio job can have at most
+     */
+    public int getMaxPortfolioSize() {
+        return solverPortfolio.getMaxSize();
+    }
+
+    /**
+     * Like {@link #launch(String, Runnable)}, but races several solvers on copies of the problem, see {@link SolverPortfolio}.
+     * The job's best solution is the best solution of any member. A member that trails the best member
+     * for longer than {@code leader-schedule.portfolio.trailing-limit} is terminated, so its thread is free sooner.
+     * The job only fails if every member fails.
+     *
+     * @param size from 1 to {@link #getMaxPortfolioSize()}
+     */
+    public int launchPortfolio(String jobId, int size, TerminationLimits limits, Runnable whenDone) {
+        if (size <= 1) {
+            return launch(jobId, limits, whenDone);
+        }
+        Job job = jobStore.get(jobId);
+        SolverConfigOverride<LeaderScheduleSolution> configOverride = terminateOn(job.schedule(), limits);
+        LOGGER.info("Solving jobId ({}) with a portfolio of {} solvers.", jobId, size);
+        List<SolverJob<LeaderScheduleSolution, String>> solverJobs = new CopyOnWriteArrayList<>();
+        severalSolverJobs.put(jobId, solverJobs);
+        var solve = new PortfolioSolve(jobId, job, size, whenDone);
+        solverMetrics.launched(jobId, job);
+        for (int i = 0; i < size; i++) {
+            int member = i;
+            LeaderScheduleSolution problem = member == 0 ? job.schedule() : copy(job.schedule());
+            problem.compileProblemFacts();
+            // Every member has its own solver manager, so they can all use the job ID.
+            SolverJob<LeaderScheduleSolution, String> solverJob = solverPortfolio.getSolverManager(member).solveBuilder()
+                    .withConfigOverride(configOverride)
+                    .withProblemId(jobId)
+                    .withProblem(problem)
+                    .withBestSolutionConsumer(solution -> solve.bestSolutionChanged(member, solution))
+                    .withFinalBestSolutionConsumer(solution -> solve.finished(member, solution))
+                    .withExceptionHandler((id, exception) -> solve.failed(member, exception))
+                    .run();
+            solverJobs.add(solverJob);
+            job.progress().started(solverJob);
+        }
+        return size;
+    }
+
+    /**
+     * Terminates every solver job of the job, which is only one unless it is partitioned or a portfolio.
+     */
+    public void terminateEarly(String jobId) {
+        List<SolverJob<LeaderScheduleSolution, String>> solverJobs = severalSolverJobs.get(jobId);
+        if (solverJobs == null) {
+            constraintProfiling.getSolverManager(jobId).terminateEarly(jobId);
+            return;
+        }
+        for (SolverJob<LeaderScheduleSolution, String> solverJob : solverJobs) {
+            solverJob.terminateEarly();
+        }
+    }
+
+    /**
+     * @return true if the job is partitioned or a portfolio, and still solving
+     */
+    public boolean hasSeveralSolverJobs(String jobId) {
+        return severalSolverJobs.containsKey(jobId);
+    }
+
+    private SolverConfigOverride<LeaderScheduleSolution> terminateOn(LeaderScheduleSolution problem, TerminationLimits limits) {
+        return new SolverConfigOverride<LeaderScheduleSolution>().withTerminationConfig(terminationPolicy.forProblem(problem, limits));
+    }
+
+    private void launch(String jobId, SolverConfigOverride<LeaderScheduleSolution> configOverride, boolean profiled,
+                        Runnable whenDone) {
+        Job job = jobStore.get(jobId);
+        solverMetrics.launched(jobId, job);
+        ConstraintProfiler profiler = profiled || constraintProfiling.isEnabled() ? constraintProfiling.start(jobId) : null;
+        SolverManager<LeaderScheduleSolution, String> jobSolverManager = profiler == null ? solverManager
+                : constraintProfiling.getProfilingSolverManager();
+        SolverJob<LeaderScheduleSolution, String> solverJob = jobSolverManager.solveBuilder()
+                .withConfigOverride(configOverride)
+                .withProblemId(jobId)
+                .withProblemFinder(id -> {
+                    // Called on the solver thread right before it starts solving.
+                    if (profiler != null) {
+                        ConstraintProfiler.attach(profiler);
+                    }
+                    return jobStore.get(id).schedule();
+                })
+                .withBestSolutionConsumer(solution -> {
+                    job.assignments().record(solution);
+                    job.progress().bestSolutionChanged(solution);
+                    jobStore.update(jobId, job.withSchedule(solution));
+                    solverMetrics.bestSolutionChanged(jobId, solution);
+                    eventBroadcaster.publish(jobId, solution);
+                })
+                .withFinalBestSolutionConsumer(solution -> {
+                    job.progress().finished(solution);
+                    jobStore.finish(jobId, job.withSchedule(solution));
+                    solverMetrics.ended(jobId);
+                    if (profiler != null) {
+                        constraintProfiling.ended(jobId);
+                        // Called on the solver thread, which solves other jobs next.
+                        ConstraintProfiler.attach(null);
+                    }
+                    solutionCache.finished(jobId, solution);
+                    eventBroadcaster.complete(jobId, solution);
+                    whenDone.run();
+                })
+                .withExceptionHandler((id, exception) -> {
+                    job.progress().failed(exception);
+                    jobStore.finish(id, job.withException(exception));
+                    solverMetrics.ended(id);
+                    if (profiler != null) {
+                        constraintProfiling.ended(id);
+                        ConstraintProfiler.attach(null);
+                    }
+                    solutionCache.failed(id);
+                    eventBroadcaster.fail(id, exception);
+                    LOGGER.error("Failed solving jobId ({}).", id, exception);
+                    whenDone.run();
+                })
+                .run();
+        job.progress().started(solverJob);
+    }
+
+    /**
+     * @return a copy of the solution with its problem facts compiled, which can be scored without changing the solution.
+     * Its shadow variables aren't set, like {@code Leader.group}, so score it with the default {@code SolutionUpdatePolicy.UPDATE_ALL}
+     */
+    LeaderScheduleSolution copyCompiled(LeaderScheduleSolution solution) {
+        LeaderScheduleSolution result = copy(solution);
+        result.compileProblemFacts();
+        return result;
+    }
+
+    private LeaderScheduleSolution copy(LeaderScheduleSolution solution) {
+        // The previous job keeps its solution, the new job mustn't change it.
+        try {
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(solution), LeaderScheduleSolution.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed copying the solution.", e);
+        }
+    }
+
+    /**
+     * Collects the solutions of the partitions of a job. Synchronized, since every partition calls back on its own thread.
+     */
+    private final class PartitionedSolve {
+
+        private final String jobId;
+        private final Job job;
+        private final List<SchedulePartition> partitions;
+        private final Runnable whenDone;
+        private final LeaderScheduleSolution[] bestSolutions;
+        private int unfinished;
+        private boolean failed = false;
+
+        private PartitionedSolve(String jobId, Job job, List<SchedulePartition> partitions, Runnable whenDone) {
+            this.jobId = jobId;
+            this.job = job;
+            this.partitions = partitions;
+            this.whenDone = whenDone;
+            this.bestSolutions = new LeaderScheduleSolution[partitions.size()];
+            this.unfinished = partitions.size();
+        }
+
+        synchronized void bestSolutionChanged(int partition, LeaderScheduleSolution solution) {
+            bestSolutions[partition] = solution;
+            LeaderScheduleSolution merged = merge();
+            if (merged == null || failed) {
+                return;
+            }
+            job.assignments().record(merged);
+            job.progress().bestSolutionChanged(merged);
+            jobStore.update(jobId, job.withSchedule(merged));
+            solverMetrics.bestSolutionChanged(jobId, merged);
+            eventBroadcaster.publish(jobId, merged);
+        }
+
+        synchronized void finished(int partition, LeaderScheduleSolution solution) {
+            bestSolutions[partition] = solution;
+            unfinished--;
+            if (unfinished > 0 || failed) {
+                return;
+            }
+            severalSolverJobs.remove(jobId);
+            LeaderScheduleSolution merged = merge();
+            job.progress().finished(merged);
+            jobStore.finish(jobId, job.withSchedule(merged));
+            solverMetrics.ended(jobId);
+            solutionCache.finished(jobId, merged);
+            eventBroadcaster.complete(jobId, merged);
+            whenDone.run();
+        }
+
+        synchronized void failed(Throwable exception) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+            // The other partitions can't make up for the missing one.
+            terminateEarly(jobId);
+            severalSolverJobs.remove(jobId);
+            job.progress().failed(exception);
+            jobStore.finish(jobId, job.withException(exception));
+            solverMetrics.ended(jobId);
+            solutionCache.failed(jobId);
+            eventBroadcaster.fail(jobId, exception);
+            LOGGER.error("Failed solving jobId ({}).", jobId, exception);
+            whenDone.run();
+        }
+
+        private LeaderScheduleSolution merge() {
+            if (Arrays.asList(bestSolutions).contains(null)) {
+                return null;
+            }
+            return SchedulePartitioner.merge(job.schedule(), partitions, Arrays.asList(bestSolutions));
+        }
+    }
+
+    /**
+     * Keeps the best solution of the members of a portfolio job. Synchronized, since every member calls back on its own thread.
+     */
+    private final class PortfolioSolve {
+
+        private final String jobId;
+        private final Job job;
+        private final Runnable whenDone;
+        private final BendableScore[] memberScores;
+        // When each member last had the best score, or was launched.
+        private final long[] lastLeadingNanos;
+        private final boolean[] terminated;
+        private LeaderScheduleSolution best = null;
+        private Throwable failure = null;
+        private int unfinished;
+
+        private PortfolioSolve(String jobId, Job job, int size, Runnable whenDone) {
+            this.jobId = jobId;
+            this.job = job;
+            this.whenDone = whenDone;
+            this.memberScores = new BendableScore[size];
+            this.lastLeadingNanos = new long[size];
+            Arrays.fill(lastLeadingNanos, System.nanoTime());
+            this.terminated = new boolean[size];
+            this.unfinished = size;
+        }
+
+        synchronized void bestSolutionChanged(int member, LeaderScheduleSolution solution) {
+            long now = System.nanoTime();
+            memberScores[member] = solution.getScore();
+            if (best == null || solution.getScore().compareTo(best.getScore()) > 0) {
+                best = solution;
+                job.assignments().record(solution);
+                job.progress().bestSolutionChanged(solution);
+                jobStore.update(jobId, job.withSchedule(solution));
+                solverMetrics.bestSolutionChanged(jobId, solution);
+                eventBroadcaster.publish(jobId, solution);
+            }
+            if (solution.getScore().compareTo(best.getScore()) >= 0) {
+                lastLeadingNanos[member] = now;
+            }
+            terminateTrailing(now);
+        }
+
+        synchronized void finished(int member, LeaderScheduleSolution solution) {
+            terminated[member] = true;
+            if (best == null || solution.getScore().compareTo(best.getScore()) > 0) {
+                best = solution;
+            }
+            memberFinished();
+        }
+
+        synchronized void failed(int member, Throwable exception) {
+            LOGGER.warn("Portfolio member {} of jobId ({}) failed.", member, jobId, exception);
+            terminated[member] = true;
+            failure = exception;
+            memberFinished();
+        }
+
+        private void terminateTrailing(long now) {
+            List<SolverJob<LeaderScheduleSolution, String>> solverJobs = severalSolverJobs.getOrDefault(jobId, List.of());
+            for (int member = 0; member < memberScores.length && member < solverJobs.size(); member++) {
+                // The leading member never trails, so at least one member keeps solving. A member without a score
+                // yet is still constructing its first solution, which takes longer than the limit on large schedules.
+                boolean trailing = memberScores[member] != null && memberScores[member].compareTo(best.getScore()) < 0;
+                if (!terminated[member] && trailing && now - lastLeadingNanos[member] > portfolioTrailingLimit.toNanos()) {
+                    LOGGER.debug("Terminating portfolio member {} of jobId ({}), trailing with score ({}).",
+                            member, jobId, memberScores[member]);
+                    terminated[member] = true;
+                    solverJobs.get(member).terminateEarly();
+                }
+            }
+        }
+
+        private void memberFinished() {
+            unfinished--;
+            if (unfinished > 0) {
+                return;
+            }
+            severalSolverJobs.remove(jobId);
+            if (best == null) {
+                job.progress().failed(failure);
+                jobStore.finish(jobId, job.withException(failure));
+                solverMetrics.ended(jobId);
+                solutionCache.failed(jobId);
+                eventBroadcaster.fail(jobId, failure);
+                LOGGER.error("Failed solving jobId ({}).", jobId, failure);
+            } else {
+                job.progress().finished(best);
+                jobStore.finish(jobId, job.withSchedule(best));
+                solverMetrics.ended(jobId);
+                solutionCache.finished(jobId, best);
+                eventBroadcaster.complete(jobId, best);
+            }
+            whenDone.run();
+        }
+    }
+
+    /**
+     * Registers a job that is finished right away, with a copy of an earlier solution of the same problem.
+     *
+     * @return the job ID
+     */
+    public String finishWith(LeaderScheduleSolution solution) {
+        String jobId = register(copy(solution));
+        Job job = jobStore.get(jobId);
+        job.assignments().record(job.schedule());
+        job.progress().finished(job.schedule());
+        jobStore.finish(jobId, job);
+        return jobId;
+    }
+
+    /**
+     * Like {@link #register(LeaderScheduleSolution)}, with a copy of an earlier solution,
+     * so solving starts from its assignments.
+     *
+     * @return the job ID
+     */
+    public String registerCopy(LeaderScheduleSolution solution) {
+        return register(copy(solution));
+    }
+
+    /**
+     * Finishes a registered job that will never be launched, keeping the submitted problem as its solution.
+     */
+    public void cancel(String jobId) {
+        Job job = jobStore.get(jobId);
+        if (job == null) {
+            return;
+        }
+        job.progress().finished(job.schedule());
+        jobStore.finish(jobId, job);
+        eventBroadcaster.complete(jobId, job.schedule());
+    }
+}
@@ -0,0 +1,105 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverJob;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the {@link JobStatus} of a job up to date from the solver callbacks,
+ * so reading it never touches or copies the schedule.
+ * A job solved as several solver jobs, like a partitioned job, reports them as one:
+ * the longest time spent and the total score calculation count.
+ */
+final class JobProgress {
+
+    private final AtomicReference<JobStatus> status;
+    private final List<SolverJob<LeaderScheduleSolution, String>> solverJobs = new CopyOnWriteArrayList<>();
+
+    JobProgress(LeaderScheduleSolution problem) {
+        this.status = new AtomicReference<>(
+                new JobStatus(scoreOf(problem), SolverStatus.SOLVING_SCHEDULED, 0L, 0L, 0L, null));
+    }
+
+    /**
+     * Called once per solver job, once it is submitted, which can be after the first callbacks.
+     */
+    void started(SolverJob<LeaderScheduleSolution, String> solverJob) {
+        solverJobs.add(solverJob);
+    }
+
+    void bestSolutionChanged(LeaderScheduleSolution solution) {
+        String score = scoreOf(solution);
+        status.updateAndGet(previous -> new JobStatus(score, SolverStatus.SOLVING_ACTIVE, timeSpentMillis(previous),
+                previous.bestSolutionCount() + 1, scoreCalculationCount(previous), null));
+    }
+
+    void finished(LeaderScheduleSolution solution) {
+        String score = scoreOf(solution);
+        status.updateAndGet(previous -> new JobStatus(score, SolverStatus.NOT_SOLVING, timeSpentMillis(previous),
+                previous.bestSolutionCount(), scoreCalculationCount(previous), null));
+    }
+
+    void failed(Throwable exception) {
+        status.updateAndGet(previous -> new JobStatus(previous.score(), SolverStatus.NOT_SOLVING, timeSpentMillis(previous),
+                previous.bestSolutionCount(), scoreCalculationCount(previous), exception.getMessage()));
+    }
+
+    /**
+     * @return the status as of the last callback, with the time spent and the score calculation count
+     * brought up to date while the job is still scheduled or solving
+     */
+    JobStatus get() {
+        JobStatus current = status.get();
+        if (current.solverStatus() == SolverStatus.NOT_SOLVING || solverJobs.isEmpty()) {
+            return current;
+        }
+        SolverStatus solverStatus = SolverStatus.NOT_SOLVING;
+        for (SolverJob<LeaderScheduleSolution, String> job : solverJobs) {
+            SolverStatus jobStatus = job.getSolverStatus();
+            if (jobStatus == SolverStatus.SOLVING_ACTIVE
+                    || (jobStatus == SolverStatus.SOLVING_SCHEDULED && solverStatus == SolverStatus.NOT_SOLVING)) {
+                solverStatus = jobStatus;
+            }
+        }
+        if (solverStatus == SolverStatus.NOT_SOLVING) {
+            // Solving ended, but the final best solution callback hasn't run yet.
+            return status.get();
+        }
+        return new JobStatus(current.score(), solverStatus, timeSpentMillis(current),
+                current.bestSolutionCount(), scoreCalculationCount(current), null);
+    }
+
+    private long timeSpentMillis(JobStatus previous) {
+        if (solverJobs.isEmpty()) {
+            return previous.timeSpentMillis();
+        }
+        Duration result = Duration.ZERO;
+        for (SolverJob<LeaderScheduleSolution, String> job : solverJobs) {
+            Duration duration = job.getSolvingDuration();
+            if (duration.compareTo(result) > 0) {
+                result = duration;
+            }
+        }
+        return result.toMillis();
+    }
+
+    private long scoreCalculationCount(JobStatus previous) {
+        if (solverJobs.isEmpty()) {
+            return previous.scoreCalculationCount();
+        }
+        var result = 0L;
+        for (SolverJob<LeaderScheduleSolution, String> job : solverJobs) {
+            result += job.getScoreCalculationCount();
+        }
+        return result;
+    }
+
+    private static String scoreOf(LeaderScheduleSolution solution) {
+        return solution.getScore() == null ? null : solution.getScore().toString();
+    }
+}
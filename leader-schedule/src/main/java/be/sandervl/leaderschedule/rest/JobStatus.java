@@ -0,0 +1,15 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+/**
+ * The progress of a job, without its schedule.
+ *
+ * @param score the score of the best solution so far
+ * @param timeSpentMillis how long the solver has been solving, 0 while still scheduled
+ * @param bestSolutionCount how many times a new best solution was found
+ * @param error the message of the exception that stopped solving, null unless solving failed
+ */
+public record JobStatus(String score, SolverStatus solverStatus, long timeSpentMillis,
+        long bestSolutionCount, long scoreCalculationCount, String error) {
+}
@@ -0,0 +1,346 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Holds the jobs submitted to the solver.
+ * <p>
+ * Jobs that are scheduled or solving are never evicted.
+ * Finished jobs are kept in least recently used order and evicted, oldest first, when there are too many of them,
+ * when all jobs together retain too much memory, or when they haven't been read for longer than the time to live.
+ * Apart from listing the job IDs, no operation depends on the number of jobs.
+ * <p>
+ * If the {@link JobJournal} is enabled, every job is journaled as well,
+ * and a finished job that was evicted is read back from the journal when it is looked up again.
+ */
+@ApplicationScoped
+public class JobStore {
+
+    // Rough retained sizes, only used to weigh jobs against each other and against the memory budget.
+    private static final long SCHEDULE_BYTES = 256;
+    private static final long GROUP_BYTES = 128;
+    private static final long LEADER_BYTES = 256;
+    private static final long LEADER_REFERENCE_BYTES = 48;
+    private static final long AFFINITY_BYTES = 64;
+
+    private final int maxFinishedJobs;
+    private final long maxRetainedBytes;
+    private final long timeToLiveNanos;
+    private final JobJournal journal;
+
+    // All guarded by this.
+    private final Map<String, Entry> activeJobs = new HashMap<>();
+    private final LinkedHashMap<String, Entry> finishedJobs = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedBytes = 0L;
+    private long countEvictions = 0L;
+    private long memoryEvictions = 0L;
+    private long timeToLiveEvictions = 0L;
+
+    @Inject
+    public JobStore(@ConfigProperty(name = "leader-schedule.job-store.max-finished-jobs", defaultValue = "100") int maxFinishedJobs,
+                    @ConfigProperty(name = "leader-schedule.job-store.max-retained-memory", defaultValue = "256M") MemorySize maxRetainedMemory,
+                    @ConfigProperty(name = "leader-schedule.job-store.time-to-live", defaultValue = "1h") Duration timeToLive,
+                    JobJournal journal,
+                    MeterRegistry meterRegistry) {
+        this.maxFinishedJobs = maxFinishedJobs;
+        this.journal = journal;
+        this.maxRetainedBytes = maxRetainedMemory.asLongValue();
+        this.timeToLiveNanos = timeToLive.toNanos();
+        Gauge.builder("leader-schedule.job-store.jobs", this, JobStore::getActiveJobCount)
+                .tag("state", "active")
+                .description("Jobs that are scheduled or solving.")
+                .register(meterRegistry);
+        Gauge.builder("leader-schedule.job-store.jobs", this, JobStore::getFinishedJobCount)
+                .tag("state", "finished")
+                .description("Finished jobs that are still retained.")
+                .register(meterRegistry);
+        Gauge.builder("leader-schedule.job-store.retained", this, JobStore::getRetainedBytes)
+                .baseUnit("bytes")
+                .description("Estimated memory retained by all jobs.")
+                .register(meterRegistry);
+        registerEvictionCounter(meterRegistry, "count", store -> store.countEvictions);
+        registerEvictionCounter(meterRegistry, "memory", store -> store.memoryEvictions);
+        registerEvictionCounter(meterRegistry, "time-to-live", store -> store.timeToLiveEvictions);
+    }
+
+    private void registerEvictionCounter(MeterRegistry meterRegistry, String cause, ToLongFunction<JobStore> count) {
+        FunctionCounter.builder("leader-schedule.job-store.evictions", this, store -> {
+                    synchronized (store) {
+                        return count.applyAsLong(store);
+                    }
+                })
+                .tag("cause", cause)
+                .description("Finished jobs evicted from the job store.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a job that is about to be submitted to the solver, or reopens a finished job to solve it again.
+     */
+    public void add(String jobId, Job job) {
+        synchronized (this) {
+            long bytes = estimateRetainedBytes(job.schedule());
+            retainedBytes += bytes;
+            Entry previous = activeJobs.put(jobId, new Entry(job, bytes, System.nanoTime()));
+            if (previous == null) {
+                previous = finishedJobs.remove(jobId);
+            }
+            if (previous != null) {
+                retainedBytes -= previous.retainedBytes;
+            }
+            evict();
+        }
+        journal.solving(jobId, job, true);
+    }
+
+    /**
+     * Replaces the job of a job that is still scheduled or solving, for example with a new best solution.
+     * Does nothing if the job doesn't exist or is finished already.
+     */
+    public void update(String jobId, Job job) {
+        synchronized (this) {
+            Entry entry = activeJobs.get(jobId);
+            if (entry == null) {
+                return;
+            }
+            replace(entry, job);
+            evict();
+        }
+        journal.solving(jobId, job, false);
+    }
+
+    /**
+     * Stores the final state of a job, after which it becomes eligible for eviction.
+     */
+    public void finish(String jobId, Job job) {
+        synchronized (this) {
+            Entry entry = activeJobs.remove(jobId);
+            if (entry == null) {
+                entry = finishedJobs.get(jobId);
+                if (entry == null) {
+                    return;
+                }
+            } else {
+                finishedJobs.put(jobId, entry);
+            }
+            replace(entry, job);
+            entry.lastAccessNanos = System.nanoTime();
+            evict();
+        }
+        journal.finished(jobId, job);
+    }
+
+    /**
+     * @return null if the job doesn't exist, or has been evicted and isn't journaled
+     */
+    public Job get(String jobId) {
+        Job job = getRetained(jobId);
+        if (job != null || !journal.isEnabled()) {
+            return job;
+        }
+        // Read outside the lock, decoding a large schedule takes a while.
+        JobJournal.JournaledJob journaled = journal.load(jobId);
+        if (journaled == null || !journaled.finished()) {
+            // Solving jobs are resumed from the journal on startup, so they are always retained.
+            return null;
+        }
+        journaled.schedule().compileProblemFacts();
+        Job restored = Job.restored(journaled.schedule(), journaled.createdAt(), true);
+        synchronized (this) {
+            Job concurrentlyRestored = getRetained(jobId);
+            if (concurrentlyRestored != null) {
+                return concurrentlyRestored;
+            }
+            long bytes = estimateRetainedBytes(restored.schedule());
+            retainedBytes += bytes;
+            finishedJobs.put(jobId, new Entry(restored, bytes, System.nanoTime()));
+            evict();
+        }
+        return restored;
+    }
+
+    private synchronized Job getRetained(String jobId) {
+        evictExpired(System.nanoTime());
+        return retained(jobId);
+    }
+
+    private Job retained(String jobId) {
+        Entry entry = activeJobs.get(jobId);
+        if (entry == null) {
+            entry = finishedJobs.get(jobId); // Moves it to the back of the eviction order.
+            if (entry == null) {
+                return null;
+            }
+            entry.lastAccessNanos = System.nanoTime();
+        }
+        return entry.job;
+    }
+
+    /**
+     * Like {@link #get(String)}, but a finished job that was evicted is answered from the journal's index,
+     * without reading its schedule back.
+     *
+     * @return null if the job doesn't exist, or has been evicted and isn't journaled
+     */
+    public JobStatus getStatus(String jobId) {
+        return getStatuses(List.of(jobId)).get(jobId);
+    }
+
+    /**
+     * Looks up the retained jobs under a single lock, see {@link #getStatus(String)}.
+     *
+     * @return the statuses of the jobs that exist, by job ID, in the order of the given IDs
+     */
+    public Map<String, JobStatus> getStatuses(Collection<String> jobIds) {
+        Map<String, Job> retained = new HashMap<>();
+        synchronized (this) {
+            evictExpired(System.nanoTime());
+            for (String jobId : jobIds) {
+                Job job = retained(jobId);
+                if (job != null) {
+                    retained.put(jobId, job);
+                }
+            }
+        }
+        Map<String, JobStatus> statuses = new LinkedHashMap<>();
+        for (String jobId : jobIds) {
+            Job job = retained.get(jobId);
+            JobStatus status = job != null ? job.progress().get() : journal.getFinishedStatus(jobId);
+            if (status != null) {
+                statuses.put(jobId, status);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * @return true if the job is scheduled or solving
+     */
+    public synchronized boolean isActive(String jobId) {
+        return activeJobs.containsKey(jobId);
+    }
+
+    /**
+     * @return the retained jobs, then those that are only journaled
+     */
+    public Set<String> getJobIds() {
+        Set<String> jobIds;
+        synchronized (this) {
+            evictExpired(System.nanoTime());
+            jobIds = new LinkedHashSet<>(activeJobs.keySet());
+            jobIds.addAll(finishedJobs.keySet());
+        }
+        jobIds.addAll(journal.getJobIds());
+        return jobIds;
+    }
+
+    public synchronized int getActiveJobCount() {
+        return activeJobs.size();
+    }
+
+    public synchronized int getFinishedJobCount() {
+        return finishedJobs.size();
+    }
+
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    private void replace(Entry entry, Job job) {
+        long bytes = job.schedule() == entry.job.schedule() ? entry.retainedBytes : estimateRetainedBytes(job.schedule());
+        retainedBytes += bytes - entry.retainedBytes;
+        entry.job = job;
+        entry.retainedBytes = bytes;
+    }
+
+    private void evict() {
+        evictExpired(System.nanoTime());
+        Iterator<Entry> iterator = finishedJobs.values().iterator();
+        while (iterator.hasNext() && (finishedJobs.size() > maxFinishedJobs || retainedBytes > maxRetainedBytes)) {
+            if (finishedJobs.size() > maxFinishedJobs) {
+                countEvictions++;
+            } else {
+                memoryEvictions++;
+            }
+            retainedBytes -= iterator.next().retainedBytes;
+            iterator.remove();
+        }
+    }
+
+    private void evictExpired(long nowNanos) {
+        Iterator<Entry> iterator = finishedJobs.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (nowNanos - eldest.lastAccessNanos <= timeToLiveNanos) {
+                // The least recently used job hasn't expired, so neither has any other.
+                return;
+            }
+            timeToLiveEvictions++;
+            retainedBytes -= eldest.retainedBytes;
+            iterator.remove();
+        }
+    }
+
+    static long estimateRetainedBytes(LeaderScheduleSolution schedule) {
+        if (schedule == null) {
+            return 0L;
+        }
+        long bytes = SCHEDULE_BYTES;
+        if (schedule.getGroups() != null) {
+            bytes += schedule.getGroups().size() * GROUP_BYTES;
+        }
+        if (schedule.getLeaders() != null) {
+            for (Leader leader : schedule.getLeaders()) {
+                bytes += LEADER_BYTES;
+                if (leader.getGroupAffinityMap() != null) {
+                    bytes += leader.getGroupAffinityMap().size() * AFFINITY_BYTES;
+                }
+                if (leader.getPreferredLeaders() != null) {
+                    bytes += leader.getPreferredLeaders().size() * LEADER_REFERENCE_BYTES;
+                }
+                if (leader.getUnwantedLeaders() != null) {
+                    bytes += leader.getUnwantedLeaders().size() * LEADER_REFERENCE_BYTES;
+                }
+            }
+        }
+        if (schedule.getLeaderRelations() != null) {
+            bytes += schedule.getLeaderRelations().getMatrixBytes();
+        }
+        if (schedule.getAffinityTable() != null) {
+            bytes += schedule.getAffinityTable().getTableBytes();
+        }
+        return bytes;
+    }
+
+    private static final class Entry {
+
+        private Job job;
+        private long retainedBytes;
+        private long lastAccessNanos;
+
+        private Entry(Job job, long retainedBytes, long lastAccessNanos) {
+            this.job = job;
+            this.retainedBytes = retainedBytes;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
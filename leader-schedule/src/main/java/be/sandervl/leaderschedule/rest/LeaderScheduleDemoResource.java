@@ -14,6 +14,7 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 @Tag(name = "Demo data", description = "Timefold-provided demo task assigning data.")
+@PayloadMetered
 @Path("demo-data")
 public class LeaderScheduleDemoResource {
 
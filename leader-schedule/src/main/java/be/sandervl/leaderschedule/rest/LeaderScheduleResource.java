@@ -1,14 +1,20 @@
 package be.sandervl.leaderschedule.rest;
 
+import ai.timefold.solver.core.api.score.analysis.ConstraintAnalysis;
 import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
 import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
 import ai.timefold.solver.core.api.solver.SolutionManager;
-import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.domain.ProblemHash;
+import be.sandervl.leaderschedule.patch.GroupPatch;
+import be.sandervl.leaderschedule.patch.LeaderPatch;
+import be.sandervl.leaderschedule.patch.SchedulePatch;
+import be.sandervl.leaderschedule.patch.SchedulePatchChange;
 import be.sandervl.leaderschedule.rest.exception.ErrorInfo;
 import be.sandervl.leaderschedule.rest.exception.ScheduleSolverException;
+import be.sandervl.leaderschedule.solver.ConstraintProfiler;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -19,8 +25,11 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -29,39 +38,67 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Map;
+import java.util.Set;
 
 @Tag(name = "Flight Crew Scheduling",
         description = "Task assigning service assigning tasks to employees.")
+@PayloadMetered
 @Path("schedules")
 public class LeaderScheduleResource {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(LeaderScheduleResource.class);
-    private static final int MAX_JOBS_CACHE_SIZE = 2;
-
-    private final SolverManager<LeaderScheduleSolution, String> solverManager;
+    private final ConstraintProfiling constraintProfiling;
     private final SolutionManager<LeaderScheduleSolution, HardSoftScore> solutionManager;
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final JobStore jobStore;
+    private final ScheduleEventBroadcaster eventBroadcaster;
+    private final JobLauncher jobLauncher;
+    private final BatchScheduler batchScheduler;
+    private final ProblemChangeCoalescer problemChangeCoalescer;
+    private final SolutionCache solutionCache;
+    private final AnalysisCache analysisCache;
+    private final TerminationPolicy terminationPolicy;
 
     public LeaderScheduleResource() {
-        this.solverManager = null;
+        this.constraintProfiling = null;
         this.solutionManager = null;
+        this.jobStore = null;
+        this.eventBroadcaster = null;
+        this.jobLauncher = null;
+        this.batchScheduler = null;
+        this.problemChangeCoalescer = null;
+        this.solutionCache = null;
+        this.analysisCache = null;
+        this.terminationPolicy = null;
     }
 
     @Inject
-    public LeaderScheduleResource(SolverManager<LeaderScheduleSolution, String> solverManager,
-                                  SolutionManager<LeaderScheduleSolution, HardSoftScore> solutionManager) {
-        this.solverManager = solverManager;
+    public LeaderScheduleResource(ConstraintProfiling constraintProfiling,
+                                  SolutionManager<LeaderScheduleSolution, HardSoftScore> solutionManager,
+                                  JobStore jobStore,
+                                  ScheduleEventBroadcaster eventBroadcaster,
+                                  JobLauncher jobLauncher,
+                                  BatchScheduler batchScheduler,
+                                  ProblemChangeCoalescer problemChangeCoalescer,
+                                  SolutionCache solutionCache,
+                                  AnalysisCache analysisCache,
+                                  TerminationPolicy terminationPolicy) {
+        this.constraintProfiling = constraintProfiling;
         this.solutionManager = solutionManager;
+        this.jobStore = jobStore;
+        this.eventBroadcaster = eventBroadcaster;
+        this.jobLauncher = jobLauncher;
+        this.batchScheduler = batchScheduler;
+        this.problemChangeCoalescer = problemChangeCoalescer;
+        this.solutionCache = solutionCache;
+        this.analysisCache = analysisCache;
+        this.terminationPolicy = terminationPolicy;
     }
 
     @Operation(summary = "List the job IDs of all submitted schedules.")
@@ -72,30 +109,86 @@ public class LeaderScheduleResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Collection<String> list() {
-        return jobIdToJob.keySet();
+        return jobStore.getJobIds();
     }
 
     @Operation(summary = "Submit a schedule to start solving as soon as CPU resources are available.")
     @APIResponses(value = {
             @APIResponse(responseCode = "202",
                     description = "The job ID. Use that ID to get the solution with the other methods.",
-                    content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))) })
+                    content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))),
+            @APIResponse(responseCode = "400",
+                    description = "A limit isn't a positive duration or is above the maximum spent limit, the portfolio size is out of range,"
+                            + " or partitioning, a portfolio and profiling are combined.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))) })
     @POST
-    @Consumes({ MediaType.APPLICATION_JSON })
+    @Consumes({ MediaType.APPLICATION_JSON, ColumnarScheduleProvider.MEDIA_TYPE })
     @Produces(MediaType.TEXT_PLAIN)
-    public String solve(LeaderScheduleSolution problem) {
-        String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofSchedule(problem));
-        solverManager.solveBuilder()
-                .withProblemId(jobId)
-                .withProblemFinder(id -> jobIdToJob.get(jobId).schedule)
-                .withBestSolutionConsumer(solution -> jobIdToJob.put(jobId, Job.ofSchedule(solution)))
-                .withExceptionHandler((id, exception) -> {
-                    jobIdToJob.put(id, Job.ofException(exception));
-                    LOGGER.error("Failed solving jobId ({}).", id, exception);
-                })
-                .run();
-        cleanJobs();
+    public String solve(LeaderScheduleSolution problem,
+            @Parameter(description = "Split the schedule into independent clusters of leaders and groups and solve them in parallel."
+                    + " Live edits aren't supported while a partitioned job is solving.") @QueryParam("partitioned") boolean partitioned,
+            @Parameter(description = "Race this many differently seeded solvers and keep the best solution."
+                    + " Live edits aren't supported while a portfolio job is solving.") @QueryParam("portfolio") Integer portfolio,
+            @Parameter(description = "Solve at most this long, like 10s, 500ms or PT10S, up to the maximum spent limit."
+                    + " Scales with the number of leaders and groups if omitted.")
+            @QueryParam("spentLimit") String spentLimit,
+            @Parameter(description = "Stop once the score didn't improve for this long, up to the maximum spent limit. Scales with the spent limit if omitted.")
+            @QueryParam("unimprovedSpentLimit") String unimprovedSpentLimit,
+            @Parameter(description = "REUSE returns a finished job with the cached solution of an identical problem,"
+                    + " or the job still solving it. WARM solves again, starting from the cached solution."
+                    + " OFF, the default unless configured otherwise, always solves from scratch.")
+            @QueryParam("cache") SolutionCacheMode cacheMode,
+            @Parameter(description = "Record the evaluation time of every constraint, see GET /schedules/{jobId}/profile."
+                    + " Always solves from scratch, and slows scoring down.") @QueryParam("profile") boolean profile) {
+        TerminationLimits limits;
+        try {
+            limits = terminationPolicy.parseLimits(spentLimit, unimprovedSpentLimit);
+        } catch (IllegalArgumentException e) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+        if (portfolio != null && (portfolio < 1 || portfolio > jobLauncher.getMaxPortfolioSize())) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST,
+                    "The portfolio size must be between 1 and " + jobLauncher.getMaxPortfolioSize() + ".");
+        }
+        if (portfolio != null && partitioned) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, "A job can't be both partitioned and a portfolio.");
+        }
+        if (profile && (portfolio != null || partitioned)) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, "Only a regular job can be profiled.");
+        }
+        // A profile needs a solver that actually solves.
+        SolutionCacheMode mode = profile ? SolutionCacheMode.OFF : cacheMode == null ? solutionCache.getDefaultMode() : cacheMode;
+        String settings = "partitioned=" + partitioned + ";portfolio=" + portfolio
+                + ";spentLimit=" + limits.spentLimit() + ";unimprovedSpentLimit=" + limits.unimprovedSpentLimit();
+        String problemHash = mode == SolutionCacheMode.OFF ? null : ProblemHash.of(problem, settings);
+        if (mode == SolutionCacheMode.REUSE) {
+            String solvingJobId = solutionCache.getSolvingJobId(problemHash);
+            if (solvingJobId != null && jobStore.get(solvingJobId) != null) {
+                return solvingJobId;
+            }
+        }
+        LeaderScheduleSolution cached = problemHash == null ? null : solutionCache.get(problemHash);
+        if (cached != null && mode == SolutionCacheMode.REUSE) {
+            return jobLauncher.finishWith(cached);
+        }
+        String jobId = cached == null ? jobLauncher.register(problem) : jobLauncher.registerCopy(cached);
+        if (problemHash != null) {
+            solutionCache.track(jobId, problemHash, settings);
+        }
+        if (cached != null) {
+            // A warm start picks up where the cached solution left off, it gains nothing from partitions or a portfolio.
+            batchScheduler.submit(jobId, 1, whenDone -> jobLauncher.launch(jobId, limits, whenDone));
+        } else if (portfolio != null) {
+            batchScheduler.submit(jobId, portfolio, whenDone -> jobLauncher.launchPortfolio(jobId, portfolio, limits, whenDone));
+        } else if (partitioned) {
+            batchScheduler.submit(jobId, jobLauncher.getMaxPartitions(),
+                    whenDone -> jobLauncher.launchPartitioned(jobId, limits, whenDone));
+        } else if (profile) {
+            batchScheduler.submit(jobId, 1, whenDone -> jobLauncher.launchProfiled(jobId, limits, whenDone));
+        } else {
+            batchScheduler.submit(jobId, 1, whenDone -> jobLauncher.launch(jobId, limits, whenDone));
+        }
         return jobId;
     }
 
@@ -111,15 +204,21 @@ public class LeaderScheduleResource {
     @Path("analyze")
     public ScoreAnalysis<HardSoftScore> analyze(LeaderScheduleSolution problem,
             @QueryParam("fetchPolicy") ScoreAnalysisFetchPolicy fetchPolicy) {
-        return fetchPolicy == null ? solutionManager.analyze(problem) : solutionManager.analyze(problem, fetchPolicy);
+        ScoreAnalysisFetchPolicy policy = fetchPolicy == null ? ScoreAnalysisFetchPolicy.FETCH_ALL : fetchPolicy;
+        String key = ProblemHash.withAssignments(problem, "fetchPolicy=" + policy);
+        return analysisCache.get(key, null, () -> {
+            problem.compileProblemFacts();
+            return solutionManager.analyze(problem, policy);
+        });
     }
 
     @Operation(
-            summary = "Get the solution and score for a given job ID. This is the best solution so far, as it might still be running or not even started.")
+            summary = "Analyze the score of the best solution so far of a given job ID.")
     @APIResponses(value = {
-            @APIResponse(responseCode = "200", description = "The best solution of the schedule so far.",
+            @APIResponse(responseCode = "200",
+                    description = "Score analysis of the best solution, with constraint matches only if the fetch policy asks for them.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
-                            schema = @Schema(implementation = LeaderScheduleSolution.class))),
+                            schema = @Schema(implementation = ScoreAnalysis.class))),
             @APIResponse(responseCode = "404", description = "No schedule found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -129,21 +228,145 @@ public class LeaderScheduleResource {
     })
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/analysis")
+    public ScoreAnalysis<HardSoftScore> getAnalysis(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "FETCH_SHALLOW, the default, only scores the constraints. FETCH_ALL also justifies them with their matches.")
+            @QueryParam("fetchPolicy") ScoreAnalysisFetchPolicy fetchPolicy) {
+        LeaderScheduleSolution schedule = getScheduleAndCheckForExceptions(jobId);
+        ScoreAnalysisFetchPolicy policy = fetchPolicy == null ? ScoreAnalysisFetchPolicy.FETCH_SHALLOW : fetchPolicy;
+        // A new best solution is a new instance, which invalidates the cached analysis.
+        return analysisCache.get("job=" + jobId + ";fetchPolicy=" + policy, schedule, () -> {
+            // Scoring writes to the solution, and the stored one is shared with every request for the job.
+            // The copy lacks the inverse shadow variables, which updating all variables restores.
+            return solutionManager.analyze(jobLauncher.copyCompiled(schedule), policy);
+        });
+    }
+
+    @Operation(
+            summary = "Get the evaluation time, invocation count and match count of every constraint of a profiled job.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "The constraints, the slowest first. The times and counts add up while the job is solving.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ScheduleProfile.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found, or the job wasn't profiled.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a schedule.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/profile")
+    public ScheduleProfile getProfile(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        ConstraintProfiler profiler = constraintProfiling.getProfiler(jobId);
+        if (profiler == null) {
+            throw new ScheduleSolverException(jobId, Response.Status.NOT_FOUND,
+                    "The job wasn't profiled, submit it with profile=true.");
+        }
+        // The matches of the best solution so far, the profiler only sees the predicates and weighers.
+        // Justifying every match is far slower than scoring, so a solving job's counts are reused for a while.
+        JobStatus status = job.progress().get();
+        LeaderScheduleSolution schedule = job.schedule();
+        Map<String, Integer> matchCounts = constraintProfiling.getMatchCounts(jobId, schedule,
+                status.solverStatus() != SolverStatus.NOT_SOLVING, () -> {
+                    Map<String, Integer> counts = new LinkedHashMap<>();
+                    // Updates all variables, the copy lacks the inverse shadow variables the constraints join on.
+                    for (ConstraintAnalysis<HardSoftScore> constraintAnalysis : solutionManager.analyze(
+                            jobLauncher.copyCompiled(schedule), ScoreAnalysisFetchPolicy.FETCH_ALL).constraintAnalyses()) {
+                        counts.put(constraintAnalysis.constraintName(), constraintAnalysis.matchCount());
+                    }
+                    return counts;
+                });
+        // Also lists the constraints whose predicates and weighers never ran.
+        Set<String> constraintNames = new LinkedHashSet<>(profiler.getConstraintNames());
+        constraintNames.addAll(matchCounts.keySet());
+        List<ConstraintProfile> constraints = new ArrayList<>();
+        for (String constraintName : constraintNames) {
+            constraints.add(new ConstraintProfile(constraintName, profiler.getEvaluationNanos(constraintName),
+                    profiler.getInvocationCount(constraintName), matchCounts.getOrDefault(constraintName, 0)));
+        }
+        constraints.sort(Comparator.comparingLong(ConstraintProfile::evaluationNanos).reversed());
+        return new ScheduleProfile(status.timeSpentMillis(), status.scoreCalculationCount(), constraints);
+    }
+
+    @Operation(
+            summary = "Get the solution and score for a given job ID. This is the best solution so far, as it might still be running or not even started.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "The best solution of the schedule so far.",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON,
+                                    schema = @Schema(implementation = LeaderScheduleSolution.class)),
+                            @Content(mediaType = ColumnarScheduleProvider.MEDIA_TYPE,
+                                    schema = @Schema(type = SchemaType.STRING, format = "binary")) }),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a schedule.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON, ColumnarScheduleProvider.MEDIA_TYPE })
     @Path("{jobId}")
     public LeaderScheduleSolution getSchedule(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        LeaderScheduleSolution schedule = getScheduleAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        schedule.setSolverStatus(solverStatus);
-        return schedule;
+        Job job = getJobAndCheckForExceptions(jobId);
+        // The stored schedule is shared with other requests and the journal, which may be encoding it right now.
+        return job.schedule().withSolverStatus(job.progress().get().solverStatus());
     }
 
     @Operation(
             summary = "Get the schedule status and score for a given job ID.")
     @APIResponses(value = {
-            @APIResponse(responseCode = "200", description = "The schedule status and the best score so far.",
+            @APIResponse(responseCode = "200",
+                    description = "The schedule status, the best score so far and the solver progress. A failed job holds the error message.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
-                            schema = @Schema(implementation = LeaderScheduleSolution.class))),
+                            schema = @Schema(implementation = JobStatus.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/status")
+    public JobStatus getStatus(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
+        // Like the batch status, a failed job reports its error in the status instead of failing the request.
+        JobStatus status = jobStore.getStatus(jobId);
+        if (status == null) {
+            throw new ScheduleSolverException(jobId, Response.Status.NOT_FOUND, "No schedule found.");
+        }
+        return status;
+    }
+
+    @Operation(
+            summary = "Get the status, score and solver progress of many job IDs at once.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "The status per job ID. Unknown job IDs are left out, failed jobs hold the error message.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(type = SchemaType.OBJECT, implementation = JobStatus.class))) })
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("status")
+    public Map<String, JobStatus> getStatuses(List<String> jobIds) {
+        return jobStore.getStatuses(jobIds);
+    }
+
+    @Operation(
+            summary = "Get the leader to group assignments that changed since a given version of the best solution of a job ID.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "The changed assignments and the version to ask the next changes from."
+                            + " Holds all assignments instead if no version is given or the changes since that version are no longer kept.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = AssignmentChanges.class))),
             @APIResponse(responseCode = "404", description = "No schedule found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -153,12 +376,184 @@ public class LeaderScheduleResource {
     })
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    @Path("{jobId}/status")
-    public LeaderScheduleSolution getStatus(
-            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        LeaderScheduleSolution schedule = getScheduleAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        return new LeaderScheduleSolution(schedule.getScore(), solverStatus);
+    @Path("{jobId}/assignments")
+    public AssignmentChanges getAssignments(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The version returned by the previous call, omit to get all assignments.") @QueryParam("since") Long since) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        JobStatus status = job.progress().get();
+        return job.assignments().since(since, status.score(), status.solverStatus());
+    }
+
+    @Operation(
+            summary = "Change the problem facts of a job, continuing from its best solution instead of solving from scratch.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The job ID that solves the changed schedule. The same job ID if the job is still solving,"
+                            + " in which case the solver applies the change to its working solution, together with other edits of the coming moments."
+                            + " Otherwise a new job ID, for a new job that starts from the best solution of the given job.",
+                    content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))),
+            @APIResponse(responseCode = "400", description = "The patch refers to unknown or existing leaders or groups.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The job is still queued, retry once it is solving, or it is partitioned or a portfolio.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a schedule.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Produces(MediaType.TEXT_PLAIN)
+    @Path("{jobId}/resolve")
+    public String resolve(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            SchedulePatch patch) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        if (jobStore.isActive(jobId)) {
+            submitLiveEdit(jobId, patch);
+            return jobId;
+        }
+        String invalidReason = SchedulePatchChange.validate(patch, job.schedule());
+        if (invalidReason != null) {
+            throw new ScheduleSolverException(jobId, Response.Status.BAD_REQUEST, invalidReason);
+        }
+        // Queued like any other job, the change is added right after it is submitted to the solver.
+        String resolvedJobId = jobLauncher.registerCopy(job.schedule());
+        var change = new SchedulePatchChange(patch);
+        batchScheduler.submit(resolvedJobId, 1, whenDone -> jobLauncher.launchResolve(resolvedJobId, change, whenDone));
+        return resolvedJobId;
+    }
+
+    @Operation(summary = "Add a leader to a solving job.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The edit is queued and will be applied together with the other edits of the coming moments."),
+            @APIResponse(responseCode = "400", description = "The leader has no name or the name is already taken.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The job isn't solving or is partitioned or a portfolio, use the resolve method once it finished.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Path("{jobId}/leaders")
+    public Response addLeader(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            LeaderPatch leader) {
+        submitLiveEdit(jobId, new SchedulePatch(List.of(leader), null, null, null));
+        return Response.accepted().build();
+    }
+
+    @Operation(summary = "Change the experience, group affinities or preferred or unwanted leaders of a leader of a solving job.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The edit is queued and will be applied together with the other edits of the coming moments."),
+            @APIResponse(responseCode = "400", description = "No such leader.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The job isn't solving or is partitioned or a portfolio, use the resolve method once it finished.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PUT
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Path("{jobId}/leaders/{fullName}")
+    public Response changeLeader(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The full name of the leader.") @PathParam("fullName") String fullName,
+            LeaderPatch leader) {
+        var changedLeader = new LeaderPatch(fullName, leader.experience(), leader.groupAffinityMap(),
+                leader.preferredLeaders(), leader.unwantedLeaders());
+        submitLiveEdit(jobId, new SchedulePatch(null, null, List.of(changedLeader), null));
+        return Response.accepted().build();
+    }
+
+    @Operation(summary = "Remove a leader from a solving job.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The edit is queued and will be applied together with the other edits of the coming moments."),
+            @APIResponse(responseCode = "400", description = "No such leader.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The job isn't solving or is partitioned or a portfolio, use the resolve method once it finished.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @DELETE
+    @Path("{jobId}/leaders/{fullName}")
+    public Response removeLeader(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The full name of the leader.") @PathParam("fullName") String fullName) {
+        submitLiveEdit(jobId, new SchedulePatch(null, List.of(fullName), null, null));
+        return Response.accepted().build();
+    }
+
+    @Operation(summary = "Change the minimum or maximum number of leaders of a group of a solving job.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The edit is queued and will be applied together with the other edits of the coming moments."),
+            @APIResponse(responseCode = "400", description = "No such group.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The job isn't solving or is partitioned or a portfolio, use the resolve method once it finished.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PUT
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Path("{jobId}/groups/{name}")
+    public Response changeGroup(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The name of the group.") @PathParam("name") String name,
+            GroupPatch group) {
+        submitLiveEdit(jobId, new SchedulePatch(null, null, null,
+                List.of(new GroupPatch(name, group.minimumLeaders(), group.maximumLeaders()))));
+        return Response.accepted().build();
+    }
+
+    @Operation(
+            summary = "Stream the best solutions of a given job ID as Server-Sent Events, until solving ends.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "A score event per new best solution, with the score and the solver status."
+                            + " With solution=true, also solution events with the full schedule, throttled to a maximum rate."
+                            + " The last events hold the final solution, after which the stream is closed.",
+                    content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                            schema = @Schema(implementation = ScoreEvent.class))),
+            @APIResponse(responseCode = "404", description = "No schedule found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a schedule.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Path("{jobId}/events")
+    public void events(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "Also send the full schedule of new best solutions.") @QueryParam("solution") boolean withSolution,
+            @Context SseEventSink eventSink, @Context Sse sse) {
+        getScheduleAndCheckForExceptions(jobId);
+        eventBroadcaster.subscribe(jobId, eventSink, sse, withSolution);
+        // The job might have finished before subscribing, in which case nothing else will close the stream.
+        if (!jobStore.isActive(jobId)) {
+            eventBroadcaster.complete(jobId, getScheduleAndCheckForExceptions(jobId));
+        }
     }
 
     @Operation(
@@ -179,49 +574,49 @@ public class LeaderScheduleResource {
     @Path("{jobId}")
     public LeaderScheduleSolution terminateSolving(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        solverManager.terminateEarly(jobId);
+        // A job still waiting in the batch scheduler's queue is unknown to the solver manager.
+        if (!batchScheduler.cancel(jobId)) {
+            jobLauncher.terminateEarly(jobId);
+        }
         return getSchedule(jobId);
     }
 
-    private LeaderScheduleSolution getScheduleAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
-        if (job == null) {
-            throw new ScheduleSolverException(jobId, Response.Status.NOT_FOUND, "No schedule found.");
+    private void submitLiveEdit(String jobId, SchedulePatch patch) {
+        Job job = getJobAndCheckForExceptions(jobId);
+        if (jobLauncher.hasSeveralSolverJobs(jobId)) {
+            throw new ScheduleSolverException(jobId, Response.Status.CONFLICT,
+                    "The job is partitioned or a portfolio, resolve it once it finished.");
         }
-        if (job.exception != null) {
-            throw new ScheduleSolverException(jobId, job.exception);
+        // Jobs that are still queued are unknown to the solver manager.
+        if (constraintProfiling.getSolverManager(jobId).getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+            throw new ScheduleSolverException(jobId, Response.Status.CONFLICT, "The job isn't solving.");
         }
-        return job.schedule;
-    }
-
-    /**
-     * The method retains only the records of the last MAX_JOBS_CACHE_SIZE completed jobs by removing the oldest ones.
-     */
-    private void cleanJobs() {
-        if (jobIdToJob.size() <= MAX_JOBS_CACHE_SIZE) {
-            return;
-        }
-        List<String> jobsToRemove = jobIdToJob.entrySet().stream()
-                .filter(e -> getStatus(e.getKey()).getSolverStatus() != SolverStatus.NOT_SOLVING)
-                .filter(e -> jobIdToJob.get(e.getKey()).schedule() != null)
-                .sorted((j1, j2) -> jobIdToJob.get(j1.getKey()).createdAt().compareTo(jobIdToJob.get(j2.getKey()).createdAt()))
-                .map(Entry::getKey)
-                .toList();
-        if (jobsToRemove.size() > MAX_JOBS_CACHE_SIZE) {
-            for (int i = 0; i < jobsToRemove.size() - MAX_JOBS_CACHE_SIZE; i++) {
-                jobIdToJob.remove(jobsToRemove.get(i));
-            }
+        String invalidReason = SchedulePatchChange.validate(patch, job.schedule(), problemChangeCoalescer.getPendingPatches(jobId));
+        if (invalidReason != null) {
+            throw new ScheduleSolverException(jobId, Response.Status.BAD_REQUEST, invalidReason);
         }
+        problemChangeCoalescer.submit(jobId, patch);
+        solutionCache.edited(jobId);
     }
 
-    private record Job(LeaderScheduleSolution schedule, LocalDateTime createdAt, Throwable exception) {
+    private LeaderScheduleSolution getScheduleAndCheckForExceptions(String jobId) {
+        return getJobAndCheckForExceptions(jobId).schedule();
+    }
 
-        static Job ofSchedule(LeaderScheduleSolution schedule) {
-            return new Job(schedule, LocalDateTime.now(), null);
+    private Job getJob(String jobId) {
+        Job job = jobStore.get(jobId);
+        if (job == null) {
+            throw new ScheduleSolverException(jobId, Response.Status.NOT_FOUND, "No schedule found.");
         }
+        return job;
+    }
 
-        static Job ofException(Throwable error) {
-            return new Job(null, LocalDateTime.now(), error);
+    private Job getJobAndCheckForExceptions(String jobId) {
+        Job job = getJob(jobId);
+        if (job.exception() != null) {
+            throw new ScheduleSolverException(jobId, job.exception());
         }
+        return job;
     }
+
 }
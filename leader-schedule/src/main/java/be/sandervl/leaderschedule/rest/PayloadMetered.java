@@ -0,0 +1,17 @@
+package be.sandervl.leaderschedule.rest;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Publishes the size of the request and response bodies of the annotated resources, see {@link PayloadMetrics}.
+ */
+@NameBinding
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PayloadMetered {
+}
@@ -0,0 +1,164 @@
+package be.sandervl.leaderschedule.rest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the size of the bodies read and written by {@link PayloadMetered} resources as
+ * {@code leader-schedule.http.payload{direction, method, uri}}, tagged with the path template like
+ * {@code http.server.requests}, which already publishes their latency.
+ * The bodies are counted as they stream through, so chunked bodies are measured too.
+ */
+@Provider
+@PayloadMetered
+public class PayloadMetrics implements ReaderInterceptor, WriterInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, String> uriTemplates = new ConcurrentHashMap<>();
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    public PayloadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        var counting = new CountingInputStream(context.getInputStream());
+        context.setInputStream(counting);
+        try {
+            return context.proceed();
+        } finally {
+            summary("request").record(counting.count);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        var counting = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(counting);
+        try {
+            context.proceed();
+        } finally {
+            summary("response").record(counting.count);
+        }
+    }
+
+    private DistributionSummary summary(String direction) {
+        Method method = resourceInfo.getResourceMethod();
+        // Registering an existing summary returns it.
+        return DistributionSummary.builder("leader-schedule.http.payload")
+                .baseUnit("bytes")
+                .description("Size of the request and response bodies of the schedule endpoints.")
+                .tag("direction", direction)
+                .tag("method", method == null ? "UNKNOWN" : httpMethodOf(method))
+                .tag("uri", method == null ? "UNKNOWN" : uriTemplates.computeIfAbsent(method, this::uriTemplateOf))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String uriTemplateOf(Method method) {
+        StringBuilder template = new StringBuilder();
+        appendPath(template, resourceInfo.getResourceClass().getAnnotation(Path.class));
+        appendPath(template, method.getAnnotation(Path.class));
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static void appendPath(StringBuilder template, Path path) {
+        if (path == null) {
+            return;
+        }
+        String value = path.value();
+        if (!value.startsWith("/")) {
+            template.append('/');
+        }
+        template.append(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    private static String httpMethodOf(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count = 0L;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0L;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+    }
+}
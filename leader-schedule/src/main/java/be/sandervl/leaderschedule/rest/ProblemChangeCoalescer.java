@@ -0,0 +1,125 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import be.sandervl.leaderschedule.patch.SchedulePatch;
+import be.sandervl.leaderschedule.patch.SchedulePatchChange;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the live edits of running jobs and hands them to the solver in batches.
+ * <p>
+ * Every problem change makes the solver stop its phases, apply the change and restart,
+ * so a burst of edits from the UI would otherwise restart the solver once per edit.
+ * The first edit of a job opens a window of {@code leader-schedule.live-edits.coalesce-window};
+ * all edits of that job within the window are applied together, in order, as a single {@link SchedulePatchChange}.
+ * <p>
+ * If the job finishes within the window, its edits were accepted but never applied,
+ * so the job {@link JobLauncher#continueWith(String, ProblemChange) solves again} with them.
+ */
+@ApplicationScoped
+public class ProblemChangeCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProblemChangeCoalescer.class);
+
+    private final ConstraintProfiling constraintProfiling;
+    private final JobLauncher jobLauncher;
+    private final JobStore jobStore;
+    private final long coalesceWindowNanos;
+    // Guarded by this.
+    private final Map<String, List<SchedulePatch>> pendingPatches = new HashMap<>();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "problem-change-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Inject
+    public ProblemChangeCoalescer(ConstraintProfiling constraintProfiling,
+                                  JobLauncher jobLauncher,
+                                  JobStore jobStore,
+                                  @ConfigProperty(name = "leader-schedule.live-edits.coalesce-window", defaultValue = "200ms") Duration coalesceWindow) {
+        this.constraintProfiling = constraintProfiling;
+        this.jobLauncher = jobLauncher;
+        this.jobStore = jobStore;
+        this.coalesceWindowNanos = coalesceWindow.toNanos();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the patches of the job that are not handed to the solver yet, in order
+     */
+    public synchronized List<SchedulePatch> getPendingPatches(String jobId) {
+        return List.copyOf(pendingPatches.getOrDefault(jobId, List.of()));
+    }
+
+    /**
+     * Queues the patch for the next batch of the job.
+     */
+    public synchronized void submit(String jobId, SchedulePatch patch) {
+        List<SchedulePatch> patches = pendingPatches.get(jobId);
+        if (patches == null) {
+            patches = new ArrayList<>();
+            pendingPatches.put(jobId, patches);
+            flushExecutor.schedule(() -> flush(jobId), coalesceWindowNanos, TimeUnit.NANOSECONDS);
+        }
+        patches.add(patch);
+    }
+
+    private void flush(String jobId) {
+        List<SchedulePatch> patches;
+        synchronized (this) {
+            patches = pendingPatches.remove(jobId);
+        }
+        if (patches == null) {
+            return;
+        }
+        try {
+            // A profiled job is solved by another solver manager.
+            constraintProfiling.getSolverManager(jobId).addProblemChange(jobId, new SchedulePatchChange(patches))
+                    .exceptionally(exception -> {
+                        if (jobStore.isActive(jobId)) {
+                            LOGGER.error("Failed applying {} edits to jobId ({}).", patches.size(), jobId, exception);
+                        } else {
+                            // The job finished before the solver got to the change.
+                            continueWith(jobId, patches);
+                        }
+                        return null;
+                    });
+            LOGGER.debug("Applied {} edits to jobId ({}) as one problem change.", patches.size(), jobId);
+        } catch (IllegalStateException e) {
+            // The job finished within the window.
+            continueWith(jobId, patches);
+        }
+    }
+
+    private void continueWith(String jobId, List<SchedulePatch> patches) {
+        try {
+            if (jobLauncher.continueWith(jobId, new SchedulePatchChange(patches))) {
+                LOGGER.info("Solving jobId ({}) again with the {} edits it finished before.", jobId, patches.size());
+            } else {
+                LOGGER.warn("Dropped {} edits of jobId ({}), it failed or is evicted.", patches.size(), jobId);
+            }
+        } catch (IllegalStateException e) {
+            // The solver manager is still letting go of the finished job.
+            flushExecutor.schedule(() -> continueWith(jobId, patches), coalesceWindowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
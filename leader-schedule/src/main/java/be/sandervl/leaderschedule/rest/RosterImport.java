@@ -0,0 +1,15 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An imported roster, ready to be submitted to {@code POST /schedules} as is.
+ *
+ * @param schedule the leaders who want to be in leadership and the groups, unsolved
+ * @param unmatchedNames per leader, the preferred or unwanted leaders whose names match no leader of the roster
+ */
+public record RosterImport(LeaderScheduleSolution schedule, Map<String, List<String>> unmatchedNames) {
+}
@@ -0,0 +1,207 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reads leaders from the answers of the leadership survey, a CSV with a header row.
+ * <p>
+ * The records are streamed: every leader is created as its record is read, keeping only the raw names of
+ * the leaders it prefers or doesn't want. Once all leaders are known, those names are resolved through an index
+ * of normalized names, so {@code "Jasper Ceunen"}, {@code "jasper  ceunen"} and the same name typed with accents
+ * all find the same leader, in time linear in the number of names.
+ */
+@ApplicationScoped
+public class RosterImporter {
+
+    static final String NAME = "Naam";
+    static final String WANTS_LEADERSHIP = "Ik wil volgend jaar in leiding staan";
+    static final String FIRST_CHOICE = "Mijn eerste keuze van groep";
+    static final String SECOND_CHOICE = "Mijn tweede keuze van groep";
+    static final String THIRD_CHOICE = "Mijn derde keuze van groep";
+    static final String EXPERIENCE = "experience";
+    static final String HAS_PREFERRED = "Is er een leider waar je graag mee in leiding zou staan?";
+    static final String HAS_UNWANTED = "Is er een leider waar je niet graag mee in leiding zou staan?";
+    // The names follow their yes/no question, in columns without a usable header.
+    static final int PREFERRED_NAMES = 7;
+    static final int UNWANTED_NAMES = 9;
+
+    // Split by common separators (comma, semicolon, "en", "and").
+    private static final Pattern NAME_SEPARATOR = Pattern.compile("[,;]|\\ben\\b|\\band\\b");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreEmptyLines(true)
+            .build();
+
+    /**
+     * The groups of the chapter, for rosters that don't come with their own.
+     */
+    public static List<Group> defaultGroups() {
+        return List.of(
+                new Group("Speelclub", 2, 4),
+                new Group("Rakkers", 2, 3),
+                new Group("Toppers", 2, 2),
+                new Group("Kerels", 1, 2),
+                new Group("Aspiranten", 1, 2)
+        );
+    }
+
+    /**
+     * @param reader closed by the caller
+     * @param groups the groups of the schedule
+     * @throws IllegalArgumentException if a required column is missing or the experience isn't a number
+     * @throws UncheckedIOException if reading fails
+     */
+    public RosterImport read(Reader reader, List<Group> groups) {
+        List<Leader> leaders = new ArrayList<>();
+        Map<String, Leader> exactIndex = new HashMap<>();
+        Map<String, Leader> normalizedIndex = new HashMap<>();
+        // Resolved once all leaders are known, since names can refer to leaders further down.
+        List<PendingNames> pendingNames = new ArrayList<>();
+        try {
+            CSVParser parser = FORMAT.parse(reader);
+            for (String column : List.of(NAME, WANTS_LEADERSHIP)) {
+                if (!parser.getHeaderMap().containsKey(column)) {
+                    throw new IllegalArgumentException("The roster has no column (" + column + ").");
+                }
+            }
+            for (CSVRecord record : parser) {
+                // Filter out those who don't want to be in leadership
+                String name = get(record, NAME);
+                if (name == null || !"Ja".equalsIgnoreCase(get(record, WANTS_LEADERSHIP))) {
+                    continue;
+                }
+                Leader leader = new Leader(name, parseExperience(record));
+                Map<String, Affinity> affinityMap = leader.getGroupAffinityMap();
+                putAffinity(affinityMap, get(record, FIRST_CHOICE), Affinity.HIGH);
+                putAffinity(affinityMap, get(record, SECOND_CHOICE), Affinity.MEDIUM);
+                putAffinity(affinityMap, get(record, THIRD_CHOICE), Affinity.LOW);
+                leaders.add(leader);
+                exactIndex.putIfAbsent(name, leader);
+                normalizedIndex.putIfAbsent(normalize(name), leader);
+
+                String preferredNames = "Ja".equalsIgnoreCase(get(record, HAS_PREFERRED)) ? get(record, PREFERRED_NAMES) : null;
+                String unwantedNames = "Ja".equalsIgnoreCase(get(record, HAS_UNWANTED)) ? get(record, UNWANTED_NAMES) : null;
+                if (preferredNames != null || unwantedNames != null) {
+                    pendingNames.add(new PendingNames(leader, preferredNames, unwantedNames));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the roster.", e);
+        }
+
+        Map<String, List<String>> unmatchedNames = new LinkedHashMap<>();
+        for (PendingNames pending : pendingNames) {
+            Set<Leader> preferred = resolve(pending.leader, pending.preferredNames, exactIndex, normalizedIndex, unmatchedNames);
+            if (!preferred.isEmpty()) {
+                pending.leader.setPreferredLeaders(preferred);
+            }
+            Set<Leader> unwanted = resolve(pending.leader, pending.unwantedNames, exactIndex, normalizedIndex, unmatchedNames);
+            if (!unwanted.isEmpty()) {
+                pending.leader.setUnwantedLeaders(unwanted);
+            }
+        }
+        var schedule = new LeaderScheduleSolution();
+        schedule.setLeaders(leaders);
+        schedule.setGroups(groups);
+        return new RosterImport(schedule, unmatchedNames);
+    }
+
+    private static Set<Leader> resolve(Leader leader, String leaderNames,
+            Map<String, Leader> exactIndex, Map<String, Leader> normalizedIndex, Map<String, List<String>> unmatchedNames) {
+        if (leaderNames == null) {
+            return Set.of();
+        }
+        Set<Leader> resolved = new LinkedHashSet<>();
+        for (String name : NAME_SEPARATOR.split(leaderNames)) {
+            String trimmedName = name.trim();
+            if (trimmedName.isEmpty()) {
+                continue;
+            }
+            Leader match = exactIndex.get(trimmedName);
+            if (match == null) {
+                match = normalizedIndex.get(normalize(trimmedName));
+            }
+            if (match == null) {
+                unmatchedNames.computeIfAbsent(leader.getFullName(), key -> new ArrayList<>()).add(trimmedName);
+            } else if (match != leader) {
+                resolved.add(match);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Folds case, accents and runs of whitespace, so names typed slightly differently compare equal.
+     */
+    static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        String folded = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded).replaceAll(" ");
+    }
+
+    private static int parseExperience(CSVRecord record) {
+        String experience = get(record, EXPERIENCE);
+        if (experience == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(experience);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The experience (" + experience + ") of leader (" + get(record, NAME)
+                    + ") on line " + record.getRecordNumber() + " isn't a number.", e);
+        }
+    }
+
+    private static void putAffinity(Map<String, Affinity> affinityMap, String groupName, Affinity affinity) {
+        if (groupName != null) {
+            affinityMap.putIfAbsent(groupName, affinity);
+        }
+    }
+
+    /**
+     * @return the trimmed value, or null if the column is missing or blank
+     */
+    private static String get(CSVRecord record, String column) {
+        return record.isSet(column) ? blankToNull(record.get(column)) : null;
+    }
+
+    private static String get(CSVRecord record, int column) {
+        return record.isSet(column) ? blankToNull(record.get(column)) : null;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record PendingNames(Leader leader, String preferredNames, String unwantedNames) {
+    }
+}
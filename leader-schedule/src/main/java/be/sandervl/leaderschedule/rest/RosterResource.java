@@ -0,0 +1,94 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.rest.exception.ErrorInfo;
+import be.sandervl.leaderschedule.rest.exception.ScheduleSolverException;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag(name = "Rosters", description = "Imports the leaders of a chapter from the answers of the leadership survey.")
+@Path("rosters")
+public class RosterResource {
+
+    public static final String TEXT_CSV = "text/csv";
+
+    private final RosterImporter rosterImporter;
+
+    @Inject
+    public RosterResource(RosterImporter rosterImporter) {
+        this.rosterImporter = rosterImporter;
+    }
+
+    @Operation(summary = "Import the leaders of a survey CSV into an unsolved schedule.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "The unsolved schedule, to submit to POST /schedules as is,"
+                            + " and the preferred or unwanted names that match no leader.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = RosterImport.class))),
+            @APIResponse(responseCode = "400", description = "The CSV misses a column or has an invalid value, or the groups are invalid.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))) })
+    @POST
+    @Consumes(TEXT_CSV)
+    @Produces(MediaType.APPLICATION_JSON)
+    public RosterImport importRoster(InputStream csv,
+            @Parameter(description = "The groups, like Speelclub:2:4,Rakkers:2:3 with the minimum and maximum number of leaders."
+                    + " The groups of the chapter if omitted.") @QueryParam("groups") String groups) {
+        List<Group> parsedGroups = groups == null || groups.isBlank() ? RosterImporter.defaultGroups() : parseGroups(groups);
+        try (var reader = new InputStreamReader(csv, StandardCharsets.UTF_8)) {
+            return rosterImporter.read(reader, parsedGroups);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Commons CSV throws IllegalStateException on malformed records.
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Group> parseGroups(String groups) {
+        List<Group> parsedGroups = new ArrayList<>();
+        for (String group : groups.split(",")) {
+            String[] parts = group.trim().split(":");
+            String invalidReason = "The group (" + group + ") isn't like name:minimum:maximum.";
+            if (parts.length != 3 || parts[0].isBlank()) {
+                throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, invalidReason);
+            }
+            int minimumLeaders;
+            int maximumLeaders;
+            try {
+                minimumLeaders = Integer.parseInt(parts[1].trim());
+                maximumLeaders = Integer.parseInt(parts[2].trim());
+            } catch (NumberFormatException e) {
+                throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, invalidReason);
+            }
+            if (minimumLeaders < 0 || maximumLeaders < minimumLeaders) {
+                throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST,
+                        "The group (" + group + ") must have a minimum of at least 0 and a maximum of at least its minimum.");
+            }
+            parsedGroups.add(new Group(parts[0].trim(), minimumLeaders, maximumLeaders));
+        }
+        return parsedGroups;
+    }
+}
@@ -0,0 +1,75 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.rest.exception.ErrorInfo;
+import be.sandervl.leaderschedule.rest.exception.ScheduleSolverException;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Tag(name = "Schedule batches",
+        description = "Solves many schedules at once, sharing the solvers fairly between tenants.")
+@Path("schedules/batches")
+public class ScheduleBatchResource {
+
+    private final BatchScheduler batchScheduler;
+
+    @Inject
+    public ScheduleBatchResource(BatchScheduler batchScheduler) {
+        this.batchScheduler = batchScheduler;
+    }
+
+    @Operation(summary = "Submit many schedules of one tenant, to be solved as soon as it's their turn.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The batch ID. Use that ID to follow the progress of the batch and to find its job IDs.",
+                    content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))),
+            @APIResponse(responseCode = "400", description = "No tenant or no schedules given.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))) })
+    @POST
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Produces(MediaType.TEXT_PLAIN)
+    public String submit(BatchRequest request) {
+        if (request.tenant() == null || request.tenant().isBlank()) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, "A batch needs a tenant.");
+        }
+        if (request.problems() == null || request.problems().isEmpty()) {
+            throw new ScheduleSolverException(null, Response.Status.BAD_REQUEST, "A batch needs at least one schedule.");
+        }
+        int priority = request.priority() == null ? 0 : request.priority();
+        return batchScheduler.submit(request.tenant(), priority, request.problems());
+    }
+
+    @Operation(summary = "Get the progress of a batch and the job IDs of its schedules.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "How many jobs of the batch are queued, solving and finished.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = BatchStatus.class))),
+            @APIResponse(responseCode = "404", description = "No batch found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))) })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{batchId}")
+    public BatchStatus getStatus(
+            @Parameter(description = "The batch ID returned by the POST method.") @PathParam("batchId") String batchId) {
+        BatchStatus status = batchScheduler.getStatus(batchId);
+        if (status == null) {
+            throw new ScheduleSolverException(null, Response.Status.NOT_FOUND, "No batch found.");
+        }
+        return status;
+    }
+}
@@ -0,0 +1,209 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.rest.exception.ErrorInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the best solutions of running jobs to Server-Sent Events subscribers.
+ * <p>
+ * Every subscriber gets a {@code score} event per new best solution.
+ * Subscribers that ask for it also get {@code solution} events with the full schedule,
+ * at most {@code leader-schedule.events.max-solution-events-per-second} per job.
+ * Each event is serialized once, no matter how many subscribers receive it,
+ * and a job without subscribers costs nothing.
+ * When a job finishes, the final solution is always sent, after which the streams are closed.
+ * A job that fails gets a {@code failed} event instead, as {@code error} is the event an {@code EventSource} fires itself
+ * when the connection closes.
+ * <p>
+ * The solutions are the ones the job store shares with every reader, so the solver status of an event
+ * is only written into its JSON, never into the solution.
+ */
+@ApplicationScoped
+public class ScheduleEventBroadcaster {
+
+    public static final String SCORE_EVENT = "score";
+    public static final String SOLUTION_EVENT = "solution";
+    public static final String FAILED_EVENT = "failed";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleEventBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final long minSolutionEventIntervalNanos;
+    private final ConcurrentMap<String, Channel> jobIdToChannel = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "schedule-event-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Inject
+    public ScheduleEventBroadcaster(ObjectMapper objectMapper,
+                                    @ConfigProperty(name = "leader-schedule.events.max-solution-events-per-second", defaultValue = "2") double maxSolutionEventsPerSecond) {
+        this.objectMapper = objectMapper;
+        this.minSolutionEventIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / maxSolutionEventsPerSecond);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdownNow();
+    }
+
+    public void subscribe(String jobId, SseEventSink eventSink, Sse sse, boolean withSolution) {
+        jobIdToChannel.computeIfAbsent(jobId, id -> new Channel(sse))
+                .subscribers.add(new Subscriber(eventSink, withSolution));
+    }
+
+    /**
+     * Called for every new best solution of a running job.
+     */
+    public void publish(String jobId, LeaderScheduleSolution solution) {
+        Channel channel = jobIdToChannel.get(jobId);
+        if (channel == null) {
+            return;
+        }
+        channel.send(SCORE_EVENT, toJson(new ScoreEvent(scoreOf(solution), SolverStatus.SOLVING_ACTIVE)), false);
+        if (channel.hasSolutionSubscribers()) {
+            publishThrottled(channel, solution);
+        }
+    }
+
+    /**
+     * Sends the final solution of a job to all its subscribers and closes their streams.
+     */
+    public void complete(String jobId, LeaderScheduleSolution solution) {
+        Channel channel = jobIdToChannel.remove(jobId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.pendingSolution = null;
+        }
+        if (channel.hasSolutionSubscribers()) {
+            channel.send(SOLUTION_EVENT, toJson(solution, SolverStatus.NOT_SOLVING), true);
+        }
+        channel.send(SCORE_EVENT, toJson(new ScoreEvent(scoreOf(solution), SolverStatus.NOT_SOLVING)), false);
+        channel.close();
+    }
+
+    public void fail(String jobId, Throwable exception) {
+        Channel channel = jobIdToChannel.remove(jobId);
+        if (channel == null) {
+            return;
+        }
+        channel.send(FAILED_EVENT, toJson(new ErrorInfo(jobId, exception.getMessage())), false);
+        channel.close();
+    }
+
+    private void publishThrottled(Channel channel, LeaderScheduleSolution solution) {
+        synchronized (channel) {
+            long waitNanos = channel.lastSolutionEventNanos + minSolutionEventIntervalNanos - System.nanoTime();
+            if (waitNanos <= 0L) {
+                channel.lastSolutionEventNanos = System.nanoTime();
+                channel.send(SOLUTION_EVENT, toJson(solution, SolverStatus.SOLVING_ACTIVE), true);
+                return;
+            }
+            // Only the latest best solution is worth sending once the interval has passed.
+            boolean flushScheduled = channel.pendingSolution != null;
+            channel.pendingSolution = solution;
+            if (!flushScheduled) {
+                flushExecutor.schedule(() -> flush(channel), waitNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void flush(Channel channel) {
+        synchronized (channel) {
+            if (channel.pendingSolution == null) {
+                return;
+            }
+            channel.lastSolutionEventNanos = System.nanoTime();
+            channel.send(SOLUTION_EVENT, toJson(channel.pendingSolution, SolverStatus.SOLVING_ACTIVE), true);
+            channel.pendingSolution = null;
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can not serialize event (" + value + ").", e);
+        }
+    }
+
+    private String toJson(LeaderScheduleSolution solution, SolverStatus solverStatus) {
+        ObjectNode json = objectMapper.valueToTree(solution);
+        json.put("solverStatus", solverStatus.name());
+        return toJson(json);
+    }
+
+    private static String scoreOf(LeaderScheduleSolution solution) {
+        return solution.getScore() == null ? null : solution.getScore().toString();
+    }
+
+    private static final class Channel {
+
+        private final Sse sse;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        // Guarded by this.
+        private long lastSolutionEventNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+        private LeaderScheduleSolution pendingSolution;
+
+        private Channel(Sse sse) {
+            this.sse = sse;
+        }
+
+        private boolean hasSolutionSubscribers() {
+            return subscribers.stream().anyMatch(Subscriber::withSolution);
+        }
+
+        private void send(String name, String data, boolean solutionOnly) {
+            OutboundSseEvent event = sse.newEvent(name, data);
+            for (Subscriber subscriber : subscribers) {
+                if (solutionOnly && !subscriber.withSolution()) {
+                    continue;
+                }
+                if (subscriber.eventSink().isClosed()) {
+                    subscribers.remove(subscriber);
+                    continue;
+                }
+                subscriber.eventSink().send(event).whenComplete((result, exception) -> {
+                    if (exception != null) {
+                        LOGGER.debug("Dropping schedule event subscriber.", exception);
+                        subscribers.remove(subscriber);
+                    }
+                });
+            }
+        }
+
+        private void close() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.eventSink().close();
+            }
+            subscribers.clear();
+        }
+    }
+
+    private record Subscriber(SseEventSink eventSink, boolean withSolution) {
+    }
+}
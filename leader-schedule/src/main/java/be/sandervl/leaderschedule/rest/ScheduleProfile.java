@@ -0,0 +1,12 @@
+package be.sandervl.leaderschedule.rest;
+
+import java.util.List;
+
+/**
+ * Where the score calculation time of a profiled job went.
+ *
+ * @param timeSpentMillis how long the solver has been solving
+ * @param constraints the constraints, the slowest first
+ */
+public record ScheduleProfile(long timeSpentMillis, long scoreCalculationCount, List<ConstraintProfile> constraints) {
+}
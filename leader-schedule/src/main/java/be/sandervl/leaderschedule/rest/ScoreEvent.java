@@ -0,0 +1,6 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+public record ScoreEvent(String score, SolverStatus solverStatus) {
+}
@@ -0,0 +1,178 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.domain.ProblemHash;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Remembers the best solution of every problem solved recently, by {@link ProblemHash},
+ * so submitting the same problem again doesn't solve it again.
+ * <p>
+ * Only jobs that are {@link #track(String, String, String) tracked} are cached, once they finished.
+ * A job whose problem facts changed while solving, through live edits, is cached under the hash of the changed problem.
+ * Of several solutions for the same problem, the one with the best score is kept.
+ * The least recently used solutions are evicted beyond {@code leader-schedule.solution-cache.max-size}, or once they
+ * retain more than {@code leader-schedule.solution-cache.max-retained-memory}, estimated like the {@link JobStore} does.
+ * <p>
+ * {@code POST /schedules} only uses the cache when asked to, unless {@code leader-schedule.solution-cache.default-mode}
+ * says otherwise, so resubmitting a schedule solves it again by default.
+ */
+@ApplicationScoped
+public class SolutionCache {
+
+    private final int maxSize;
+    private final long maxRetainedBytes;
+    private final SolutionCacheMode defaultMode;
+
+    // All guarded by this.
+    private final LinkedHashMap<String, Cached> solutions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Tracked> trackedJobs = new HashMap<>();
+    private final Map<String, String> solvingJobIds = new HashMap<>();
+    private long retainedBytes = 0L;
+    private long hits = 0L;
+    private long misses = 0L;
+
+    @Inject
+    public SolutionCache(@ConfigProperty(name = "leader-schedule.solution-cache.max-size", defaultValue = "100") int maxSize,
+                         @ConfigProperty(name = "leader-schedule.solution-cache.max-retained-memory", defaultValue = "64M") MemorySize maxRetainedMemory,
+                         @ConfigProperty(name = "leader-schedule.solution-cache.default-mode", defaultValue = "OFF") SolutionCacheMode defaultMode,
+                         MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.maxRetainedBytes = maxRetainedMemory.asLongValue();
+        this.defaultMode = defaultMode;
+        registerCounter(meterRegistry, "hit", cache -> cache.hits);
+        registerCounter(meterRegistry, "miss", cache -> cache.misses);
+        Gauge.builder("leader-schedule.solution-cache.retained", this, SolutionCache::getRetainedBytes)
+                .baseUnit("bytes")
+                .description("Estimated memory retained by the cached solutions.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return what {@code POST /schedules} does with a problem that was solved before, if the client didn't say
+     */
+    public SolutionCacheMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    private synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    private void registerCounter(MeterRegistry meterRegistry, String result, ToLongFunction<SolutionCache> count) {
+        FunctionCounter.builder("leader-schedule.solution-cache.lookups", this, cache -> {
+                    synchronized (cache) {
+                        return count.applyAsLong(cache);
+                    }
+                })
+                .tag("result", result)
+                .description("Submitted problems looked up in the solution cache.")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the best known solution of the problem, or null if it isn't cached. Shared, so don't change it.
+     */
+    public synchronized LeaderScheduleSolution get(String problemHash) {
+        Cached cached = solutions.get(problemHash);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.solution;
+    }
+
+    /**
+     * Finding a job counts as a hit, since the problem isn't solved again.
+     *
+     * @return the ID of a job that is still solving the problem, or null if there is none
+     */
+    public synchronized String getSolvingJobId(String problemHash) {
+        String jobId = solvingJobIds.get(problemHash);
+        if (jobId != null) {
+            hits++;
+        }
+        return jobId;
+    }
+
+    /**
+     * Caches the final solution of the job once it finishes.
+     *
+     * @param settings the same settings the hash was made with
+     */
+    public synchronized void track(String jobId, String problemHash, String settings) {
+        if (maxSize <= 0) {
+            return;
+        }
+        trackedJobs.put(jobId, new Tracked(problemHash, settings));
+        solvingJobIds.put(problemHash, jobId);
+    }
+
+    /**
+     * Called when a job finishes, whether it is tracked or not.
+     */
+    public void finished(String jobId, LeaderScheduleSolution solution) {
+        Tracked tracked;
+        synchronized (this) {
+            tracked = trackedJobs.remove(jobId);
+            if (tracked == null) {
+                return;
+            }
+            solvingJobIds.remove(tracked.problemHash, jobId);
+        }
+        // Outside the lock, hashing and weighing a large schedule takes a while.
+        String problemHash = ProblemHash.of(solution, tracked.settings);
+        long bytes = JobStore.estimateRetainedBytes(solution);
+        synchronized (this) {
+            Cached cached = solutions.get(problemHash);
+            if (cached == null || cached.solution.getScore() == null
+                    || (solution.getScore() != null && solution.getScore().compareTo(cached.solution.getScore()) > 0)) {
+                Cached previous = solutions.put(problemHash, new Cached(solution, bytes));
+                retainedBytes += bytes - (previous == null ? 0L : previous.bytes);
+            }
+            var eldest = solutions.values().iterator();
+            while (eldest.hasNext() && (solutions.size() > maxSize || retainedBytes > maxRetainedBytes)) {
+                retainedBytes -= eldest.next().bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Called when the problem facts of a solving job change, after which it no longer solves the problem it was tracked with.
+     */
+    public synchronized void edited(String jobId) {
+        Tracked tracked = trackedJobs.get(jobId);
+        if (tracked != null) {
+            solvingJobIds.remove(tracked.problemHash, jobId);
+        }
+    }
+
+    /**
+     * Called when a job fails.
+     */
+    public synchronized void failed(String jobId) {
+        Tracked tracked = trackedJobs.remove(jobId);
+        if (tracked != null) {
+            solvingJobIds.remove(tracked.problemHash, jobId);
+        }
+    }
+
+    private record Tracked(String problemHash, String settings) {
+    }
+
+    private record Cached(LeaderScheduleSolution solution, long bytes) {
+    }
+}
@@ -0,0 +1,29 @@
+package be.sandervl.leaderschedule.rest;
+
+import java.util.Locale;
+
+/**
+ * What {@code POST /schedules} does with a problem that was solved before, see {@link SolutionCache}.
+ */
+public enum SolutionCacheMode {
+    /**
+     * Return a job that is finished right away with the cached solution,
+     * or the job that is still solving the same problem.
+     */
+    REUSE,
+    /**
+     * Solve again, starting from the cached solution.
+     */
+    WARM,
+    /**
+     * Solve from scratch, without caching the result.
+     */
+    OFF;
+
+    /**
+     * Used by JAX-RS to convert the query parameter, case-insensitively.
+     */
+    public static SolutionCacheMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
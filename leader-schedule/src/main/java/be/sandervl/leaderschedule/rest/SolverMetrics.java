@@ -0,0 +1,155 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes how fast the solver pool works through jobs, to size it:
+ * <ul>
+ *     <li>{@code leader-schedule.solver.jobs{state}}: launched jobs waiting for a solver thread, and solving jobs,</li>
+ *     <li>{@code leader-schedule.solver.queue-wait}: how long jobs waited for a solver thread,</li>
+ *     <li>{@code leader-schedule.solver.time-to-feasible}: how long jobs solved before their first feasible solution,</li>
+ *     <li>{@code leader-schedule.solver.best-solutions}: new best solutions, its rate being the best solution event rate,</li>
+ *     <li>{@code leader-schedule.solver.score-calculations}: score calculations of all jobs, its rate being the
+ *     throughput of the pool,</li>
+ *     <li>{@code leader-schedule.solver.score-calculation-speed}: score calculations per second of every finished job.</li>
+ * </ul>
+ * The per job speed is a distribution over jobs rather than a meter per job ID, which would never be removed;
+ * the counts of a single job are in its {@link JobStatus}.
+ */
+@ApplicationScoped
+public class SolverMetrics {
+
+    private final Timer queueWait;
+    private final Timer timeToFeasible;
+    private final Counter bestSolutions;
+    private final DistributionSummary scoreCalculationSpeed;
+
+    // All guarded by this.
+    private final Map<String, Tracked> launchedJobs = new HashMap<>();
+    private long finishedScoreCalculationCount = 0L;
+
+    @Inject
+    public SolverMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("leader-schedule.solver.jobs", this, metrics -> metrics.countJobs(SolverStatus.SOLVING_SCHEDULED))
+                .tag("state", "scheduled")
+                .description("Launched jobs waiting for a solver thread.")
+                .register(meterRegistry);
+        Gauge.builder("leader-schedule.solver.jobs", this, metrics -> metrics.countJobs(SolverStatus.SOLVING_ACTIVE))
+                .tag("state", "solving")
+                .description("Jobs being solved.")
+                .register(meterRegistry);
+        FunctionCounter.builder("leader-schedule.solver.score-calculations", this, SolverMetrics::getScoreCalculationCount)
+                .description("Score calculations of all jobs.")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("leader-schedule.solver.queue-wait")
+                .description("Time from launching a job until a solver thread started solving it.")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.timeToFeasible = Timer.builder("leader-schedule.solver.time-to-feasible")
+                .description("Time spent solving until the first feasible solution of a job.")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bestSolutions = Counter.builder("leader-schedule.solver.best-solutions")
+                .description("New best solutions of all jobs.")
+                .register(meterRegistry);
+        this.scoreCalculationSpeed = DistributionSummary.builder("leader-schedule.solver.score-calculation-speed")
+                .baseUnit("calculations per second")
+                .description("Average score calculation speed of every finished job.")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called right before the job is submitted to the solver.
+     */
+    public synchronized void launched(String jobId, Job job) {
+        launchedJobs.put(jobId, new Tracked(job, System.nanoTime()));
+    }
+
+    public void bestSolutionChanged(String jobId, LeaderScheduleSolution solution) {
+        bestSolutions.increment();
+        Tracked tracked;
+        synchronized (this) {
+            tracked = launchedJobs.get(jobId);
+        }
+        if (tracked == null || (tracked.started && (tracked.feasible || solution.getScore() == null))) {
+            return;
+        }
+        JobStatus status = tracked.job.progress().get();
+        synchronized (tracked) {
+            if (!tracked.started) {
+                tracked.started = true;
+                long waitNanos = System.nanoTime() - tracked.launchedNanos - Duration.ofMillis(status.timeSpentMillis()).toNanos();
+                queueWait.record(Duration.ofNanos(Math.max(0L, waitNanos)));
+            }
+            if (!tracked.feasible && solution.getScore() != null && solution.getScore().isFeasible()) {
+                tracked.feasible = true;
+                timeToFeasible.record(Duration.ofMillis(status.timeSpentMillis()));
+            }
+        }
+    }
+
+    /**
+     * Called once the job finished or failed.
+     */
+    public void ended(String jobId) {
+        JobStatus status;
+        synchronized (this) {
+            Tracked tracked = launchedJobs.remove(jobId);
+            if (tracked == null) {
+                return;
+            }
+            // In the same lock, so the score calculation counter never goes down.
+            status = tracked.job.progress().get();
+            finishedScoreCalculationCount += status.scoreCalculationCount();
+        }
+        if (status.timeSpentMillis() > 0L) {
+            scoreCalculationSpeed.record(status.scoreCalculationCount() * 1000.0 / status.timeSpentMillis());
+        }
+    }
+
+    private synchronized int countJobs(SolverStatus solverStatus) {
+        int count = 0;
+        for (Tracked tracked : launchedJobs.values()) {
+            if (tracked.job.progress().get().solverStatus() == solverStatus) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private synchronized long getScoreCalculationCount() {
+        long count = finishedScoreCalculationCount;
+        for (Tracked tracked : launchedJobs.values()) {
+            count += tracked.job.progress().get().scoreCalculationCount();
+        }
+        return count;
+    }
+
+    private static final class Tracked {
+
+        private final Job job;
+        private final long launchedNanos;
+        // Written under the lock of this, read without it.
+        private volatile boolean started = false;
+        private volatile boolean feasible = false;
+
+        private Tracked(Job job, long launchedNanos) {
+            this.job = job;
+            this.launchedNanos = launchedNanos;
+        }
+    }
+}
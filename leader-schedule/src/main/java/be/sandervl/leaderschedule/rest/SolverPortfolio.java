@@ -0,0 +1,73 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The solver managers of portfolio jobs, one per member of the portfolio.
+ * The first member is the application's solver manager, every other member solves with the same solver config
+ * but another random seed, so the members search different parts of the solution space.
+ * The other solver managers are created the first time a portfolio that large is launched, and kept,
+ * each with a single solver thread.
+ */
+@ApplicationScoped
+public class SolverPortfolio {
+
+    private final SolverManager<LeaderScheduleSolution, String> solverManager;
+    private final SolverConfig solverConfig;
+    private final int maxSize;
+
+    // Guarded by this.
+    private final List<SolverManager<LeaderScheduleSolution, String>> members = new ArrayList<>();
+
+    @Inject
+    public SolverPortfolio(SolverManager<LeaderScheduleSolution, String> solverManager,
+                           SolverConfig solverConfig,
+                           @ConfigProperty(name = "leader-schedule.portfolio.max-size") Optional<Integer> maxSize) {
+        this.solverManager = solverManager;
+        this.solverConfig = solverConfig;
+        this.maxSize = maxSize.orElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        members.add(solverManager);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param member from 0 to {@link #getMaxSize()}, exclusive
+     */
+    public synchronized SolverManager<LeaderScheduleSolution, String> getSolverManager(int member) {
+        if (member < 0 || member >= maxSize) {
+            throw new IllegalArgumentException("The portfolio member (" + member + ") must be between 0 and " + maxSize + ".");
+        }
+        while (members.size() <= member) {
+            Long baseSeed = solverConfig.getRandomSeed();
+            SolverConfig memberConfig = solverConfig.copyConfig()
+                    .withRandomSeed((baseSeed == null ? 0L : baseSeed) + members.size());
+            // A member solves one portfolio job at a time, so N members use N solver threads, not N times cores/2.
+            members.add(SolverManager.create(memberConfig, new SolverManagerConfig().withParallelSolverCount("1")));
+        }
+        return members.get(member);
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        // The application's solver manager is closed by Quarkus.
+        for (SolverManager<LeaderScheduleSolution, String> member : members) {
+            if (member != solverManager) {
+                member.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package be.sandervl.leaderschedule.rest;
+
+import java.time.Duration;
+
+/**
+ * Limits a client asked for instead of those of the {@link TerminationPolicy}.
+ *
+ * @param spentLimit how long to solve at most, scaled to the problem size if null
+ * @param unimprovedSpentLimit how long to solve without a better score, scaled to the problem size if null
+ */
+public record TerminationLimits(Duration spentLimit, Duration unimprovedSpentLimit) {
+
+    public static final TerminationLimits NONE = new TerminationLimits(null, null);
+}
@@ -0,0 +1,143 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.config.solver.termination.TerminationCompositionStyle;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides when a job stops solving, from the size of its problem:
+ * <ul>
+ *     <li>after {@code spent-limit-per-entity} for every leader and group, kept between {@code min-spent-limit}
+ *     and {@code max-spent-limit},</li>
+ *     <li>once the score didn't improve for {@code unimproved-ratio} of that time,</li>
+ *     <li>or, once feasible, as soon as the soft score improved less than {@code feasible-improvement-threshold}
+ *     during {@code feasible-unimproved-ratio} of that time,</li>
+ *     <li>or once the score reaches {@code best-score-limit}, if set.</li>
+ * </ul>
+ * A tiny chapter is then solved in well under a second, and a federation of chapters gets the time it needs.
+ */
+@ApplicationScoped
+public class TerminationPolicy {
+
+    private final Duration spentLimitPerEntity;
+    private final Duration minSpentLimit;
+    private final Duration maxSpentLimit;
+    private final double unimprovedRatio;
+    private final double feasibleUnimprovedRatio;
+    private final String feasibleImprovementThreshold;
+    private final Optional<String> bestScoreLimit;
+
+    @Inject
+    public TerminationPolicy(
+            @ConfigProperty(name = "leader-schedule.termination.spent-limit-per-entity", defaultValue = "10ms") Duration spentLimitPerEntity,
+            @ConfigProperty(name = "leader-schedule.termination.min-spent-limit", defaultValue = "500ms") Duration minSpentLimit,
+            @ConfigProperty(name = "leader-schedule.termination.max-spent-limit", defaultValue = "60s") Duration maxSpentLimit,
+            @ConfigProperty(name = "leader-schedule.termination.unimproved-ratio", defaultValue = "0.3") double unimprovedRatio,
+            @ConfigProperty(name = "leader-schedule.termination.feasible-unimproved-ratio", defaultValue = "0.1") double feasibleUnimprovedRatio,
+            @ConfigProperty(name = "leader-schedule.termination.feasible-improvement-threshold", defaultValue = "[0]hard/[1/1]soft") String feasibleImprovementThreshold,
+            @ConfigProperty(name = "leader-schedule.termination.best-score-limit") Optional<String> bestScoreLimit) {
+        this.spentLimitPerEntity = spentLimitPerEntity;
+        this.minSpentLimit = minSpentLimit;
+        this.maxSpentLimit = maxSpentLimit;
+        this.unimprovedRatio = unimprovedRatio;
+        this.feasibleUnimprovedRatio = feasibleUnimprovedRatio;
+        this.feasibleImprovementThreshold = feasibleImprovementThreshold;
+        this.bestScoreLimit = bestScoreLimit;
+    }
+
+    public TerminationConfig forProblem(LeaderScheduleSolution problem, TerminationLimits limits) {
+        int entityCount = size(problem.getLeaders()) + size(problem.getGroups());
+        Duration spentLimit = limits.spentLimit();
+        if (spentLimit == null) {
+            spentLimit = clamp(spentLimitPerEntity.multipliedBy(entityCount));
+        }
+        Duration unimprovedSpentLimit = limits.unimprovedSpentLimit();
+        if (unimprovedSpentLimit == null) {
+            unimprovedSpentLimit = scale(spentLimit, unimprovedRatio);
+        }
+        var feasibleAndFlat = new TerminationConfig()
+                .withTerminationCompositionStyle(TerminationCompositionStyle.AND)
+                .withTerminationConfigList(List.of(
+                        new TerminationConfig().withBestScoreFeasible(true),
+                        new TerminationConfig()
+                                .withUnimprovedSpentLimit(scale(spentLimit, feasibleUnimprovedRatio))
+                                .withUnimprovedScoreDifferenceThreshold(feasibleImprovementThreshold)));
+        return new TerminationConfig()
+                .withTerminationCompositionStyle(TerminationCompositionStyle.OR)
+                .withSpentLimit(spentLimit)
+                .withUnimprovedSpentLimit(unimprovedSpentLimit)
+                .withBestScoreLimit(bestScoreLimit.orElse(null))
+                .withTerminationConfigList(List.of(feasibleAndFlat));
+    }
+
+    /**
+     * Parses the limits a client asked for, see {@link #parseLimit(String)}.
+     *
+     * @throws IllegalArgumentException if a limit isn't a positive duration, or is above {@code max-spent-limit}
+     */
+    public TerminationLimits parseLimits(String spentLimit, String unimprovedSpentLimit) {
+        return new TerminationLimits(parseMaxLimit("spentLimit", spentLimit), parseMaxLimit("unimprovedSpentLimit", unimprovedSpentLimit));
+    }
+
+    /**
+     * Parses a limit given by a client, like {@code 10s}, {@code 500ms}, {@code 2m} or {@code PT10S}.
+     *
+     * @return null if the text is null or blank
+     * @throws IllegalArgumentException if the text isn't a positive duration
+     */
+    public static Duration parseLimit(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String trimmed = text.trim();
+        Duration result;
+        try {
+            if (trimmed.endsWith("ms")) {
+                result = Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+            } else if (trimmed.endsWith("s") && !trimmed.startsWith("P")) {
+                result = Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            } else if (trimmed.endsWith("m") && !trimmed.startsWith("P")) {
+                result = Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            } else {
+                result = Duration.parse(trimmed);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("The limit (" + text + ") isn't a duration like 10s, 500ms or PT10S.", e);
+        }
+        if (result.isNegative() || result.isZero()) {
+            throw new IllegalArgumentException("The limit (" + text + ") must be positive.");
+        }
+        return result;
+    }
+
+    private Duration parseMaxLimit(String name, String text) {
+        Duration result = parseLimit(text);
+        if (result != null && result.compareTo(maxSpentLimit) > 0) {
+            throw new IllegalArgumentException("The " + name + " (" + text + ") must be at most " + maxSpentLimit + ".");
+        }
+        return result;
+    }
+
+    private Duration clamp(Duration duration) {
+        if (duration.compareTo(minSpentLimit) < 0) {
+            return minSpentLimit;
+        }
+        return duration.compareTo(maxSpentLimit) > 0 ? maxSpentLimit : duration;
+    }
+
+    private static Duration scale(Duration duration, double ratio) {
+        return Duration.ofMillis(Math.max(1L, Math.round(duration.toMillis() * ratio)));
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
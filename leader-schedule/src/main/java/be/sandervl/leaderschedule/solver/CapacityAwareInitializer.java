@@ -0,0 +1,165 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.phase.custom.CustomPhaseCommand;
+import be.sandervl.leaderschedule.domain.AffinityTable;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderRelations;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Places the unassigned leaders greedily before the construction heuristic runs, so local search starts near feasibility.
+ * <ol>
+ *     <li>Every group is filled up to its minimum, handing out the leaders with the highest affinity for it first
+ *     and the most experienced among those.</li>
+ *     <li>Groups that are still too small, or have too little experience, get the most experienced leaders left,
+ *     as long as they have room.</li>
+ *     <li>The other leaders go to the group with room they like best, preferring groups with their preferred leaders.</li>
+ * </ol>
+ * A leader is never put in a group with someone either of them doesn't want.
+ * Leaders that fit nowhere are left to the construction heuristic, and leaders that are already assigned,
+ * like when re-solving an earlier schedule, are never moved.
+ * <p>
+ * Runs as the first phase of {@code solverConfig.xml} and {@code nearbySolverConfig.xml}, ahead of the construction
+ * heuristic. The reference {@code groupScanSolverConfig.xml} leaves it out and starts from the construction heuristic.
+ */
+public class CapacityAwareInitializer implements CustomPhaseCommand<LeaderScheduleSolution> {
+
+    private static final String LEADERS = "leaders";
+    // Below this total a group breaks the experience constraints.
+    private static final int MINIMUM_TOTAL_EXPERIENCE = 2;
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<LeaderScheduleSolution> scoreDirector) {
+        LeaderScheduleSolution solution = scoreDirector.getWorkingSolution();
+        solution.checkProblemFactsCompiled();
+        LeaderRelations relations = solution.getLeaderRelations();
+        AffinityTable affinities = solution.getAffinityTable();
+        List<Leader> unassigned = new ArrayList<>();
+        for (Leader leader : solution.getLeaders()) {
+            if (leader.getGroup() == null) {
+                unassigned.add(leader);
+            }
+        }
+        if (unassigned.isEmpty()) {
+            return;
+        }
+        List<Group> groups = solution.getGroups();
+
+        // Fill to the minimum, the strongest (affinity, experience) pairs first.
+        List<Candidate> candidates = new ArrayList<>();
+        for (Leader leader : unassigned) {
+            for (Group group : groups) {
+                int reward = affinities.getReward(leader.getIndex(), group.getIndex());
+                // Leaders only state a few affinities, keep the candidates sparse.
+                if (reward > 0) {
+                    candidates.add(new Candidate(leader, group, reward));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::reward).reversed()
+                .thenComparing(Comparator.comparingInt((Candidate candidate) -> candidate.leader().getExperience()).reversed()));
+        for (Candidate candidate : candidates) {
+            Group group = candidate.group();
+            if (candidate.leader().getGroup() == null && group.getLeaders().size() < group.getMinimumLeaders()
+                    && fits(candidate.leader(), group, relations)) {
+                assign(scoreDirector, candidate.leader(), group);
+            }
+        }
+
+        // Complete the groups nobody chose, and give groups without enough experience the most experienced leader left.
+        unassigned.removeIf(leader -> leader.getGroup() != null);
+        for (Group group : groups) {
+            while (hasRoom(group) && (group.getLeaders().size() < group.getMinimumLeaders()
+                    || group.computeTotalExperience() < MINIMUM_TOTAL_EXPERIENCE)) {
+                boolean belowMinimum = group.getLeaders().size() < group.getMinimumLeaders();
+                Leader best = null;
+                for (Leader leader : unassigned) {
+                    if ((belowMinimum || leader.getExperience() > 0) && leader.getGroup() == null && fits(leader, group, relations)
+                            && (best == null || isBetter(leader, best, group, affinities))) {
+                        best = leader;
+                    }
+                }
+                if (best == null) {
+                    break;
+                }
+                assign(scoreDirector, best, group);
+            }
+        }
+
+        // Everyone else goes where they like it best.
+        for (Leader leader : unassigned) {
+            if (leader.getGroup() != null) {
+                continue;
+            }
+            Group best = null;
+            int bestValue = Integer.MIN_VALUE;
+            for (Group group : groups) {
+                if (!hasRoom(group) || !fits(leader, group, relations)) {
+                    continue;
+                }
+                int value = affinities.getReward(leader.getIndex(), group.getIndex()) + countPreferred(leader, group, relations);
+                if (value > bestValue || (value == bestValue && group.getLeaders().size() < best.getLeaders().size())) {
+                    best = group;
+                    bestValue = value;
+                }
+            }
+            if (best != null) {
+                assign(scoreDirector, leader, best);
+            }
+        }
+    }
+
+    private static boolean isBetter(Leader leader, Leader best, Group group, AffinityTable affinities) {
+        if (leader.getExperience() != best.getExperience()) {
+            return leader.getExperience() > best.getExperience();
+        }
+        return affinities.getReward(leader.getIndex(), group.getIndex())
+                > affinities.getReward(best.getIndex(), group.getIndex());
+    }
+
+    private static boolean hasRoom(Group group) {
+        return group.getLeaders().size() < group.getMaximumLeaders();
+    }
+
+    private static boolean fits(Leader leader, Group group, LeaderRelations relations) {
+        for (Leader member : group.getLeaders()) {
+            if (relations.isUnwanted(leader.getIndex(), member.getIndex())
+                    || relations.isUnwanted(member.getIndex(), leader.getIndex())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countPreferred(Leader leader, Group group, LeaderRelations relations) {
+        var result = 0;
+        for (Leader member : group.getLeaders()) {
+            if (relations.isPreferred(leader.getIndex(), member.getIndex())) {
+                result++;
+            }
+            if (relations.isPreferred(member.getIndex(), leader.getIndex())) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static void assign(ScoreDirector<LeaderScheduleSolution> scoreDirector, Leader leader, Group group) {
+        int index = group.getLeaders().size();
+        scoreDirector.beforeListVariableElementAssigned(group, LEADERS, leader);
+        scoreDirector.beforeListVariableChanged(group, LEADERS, index, index);
+        group.getLeaders().add(leader);
+        scoreDirector.afterListVariableChanged(group, LEADERS, index, index + 1);
+        scoreDirector.afterListVariableElementAssigned(group, LEADERS, leader);
+        scoreDirector.triggerVariableListeners();
+    }
+
+    private record Candidate(Leader leader, Group group, int reward) {
+    }
+}
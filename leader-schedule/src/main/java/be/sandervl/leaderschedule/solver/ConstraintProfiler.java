@@ -0,0 +1,72 @@
+package be.sandervl.leaderschedule.solver;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The cumulative evaluation time and invocation count of the predicates and weighers of every constraint
+ * during one job, recorded by {@link ProfilingConstraintProvider}.
+ * <p>
+ * A constraint provider is shared by every job of a solver factory, so it records into the profiler
+ * {@link #attach(ConstraintProfiler) attached} to the solver thread instead.
+ * That only works without move threads, which would evaluate the constraints on other threads.
+ */
+public final class ConstraintProfiler {
+
+    private static final ThreadLocal<ConstraintProfiler> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Counters> countersByConstraint = new ConcurrentHashMap<>();
+
+    /**
+     * Records every constraint the current thread evaluates from now on into the profiler.
+     *
+     * @param profiler null to stop recording
+     */
+    public static void attach(ConstraintProfiler profiler) {
+        if (profiler == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(profiler);
+        }
+    }
+
+    /**
+     * @return null if the current thread isn't profiled
+     */
+    static ConstraintProfiler current() {
+        return CURRENT.get();
+    }
+
+    void record(String constraintName, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        Counters counters = countersByConstraint.computeIfAbsent(constraintName, name -> new Counters());
+        counters.nanos.add(nanos);
+        counters.invocations.increment();
+    }
+
+    /**
+     * @return the constraints that were evaluated at least once
+     */
+    public Set<String> getConstraintNames() {
+        return Set.copyOf(countersByConstraint.keySet());
+    }
+
+    public long getEvaluationNanos(String constraintName) {
+        Counters counters = countersByConstraint.get(constraintName);
+        return counters == null ? 0L : counters.nanos.sum();
+    }
+
+    public long getInvocationCount(String constraintName) {
+        Counters counters = countersByConstraint.get(constraintName);
+        return counters == null ? 0L : counters.invocations.sum();
+    }
+
+    private static final class Counters {
+
+        // Added to by the solver thread, summed by whoever reads the profile.
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder invocations = new LongAdder();
+    }
+}
@@ -0,0 +1,109 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.domain.variable.ListVariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import be.sandervl.leaderschedule.domain.AffinityTable;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.List;
+
+/**
+ * Keeps the leader count, total experience and affinity total of a {@link Group} in line with its leaders,
+ * so the constraints read them instead of walking the leaders on every evaluation.
+ * <p>
+ * The aggregates are updated with deltas: before the list of a group changes, the leaders in the changed range
+ * are subtracted; after it changed, the leaders now in that range are added, so a move costs a few leaders,
+ * not a pass over both groups.
+ * Changes to the experience or affinities of a leader don't touch the list, so a problem change must make them
+ * inside a change of the list of the leader's group, see {@code SchedulePatchChange}.
+ */
+public class GroupAggregateVariableListener implements ListVariableListener<LeaderScheduleSolution, Group, Leader> {
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group) {
+        update(scoreDirector, group);
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group) {
+        // Do nothing
+    }
+
+    @Override
+    public void resetWorkingSolution(ScoreDirector<LeaderScheduleSolution> scoreDirector) {
+        // The aggregates and the constraints would silently score missing facts as 0.
+        scoreDirector.getWorkingSolution().checkProblemFactsCompiled();
+        for (Group group : scoreDirector.getWorkingSolution().getGroups()) {
+            update(scoreDirector, group);
+        }
+    }
+
+    @Override
+    public void afterListVariableElementUnassigned(ScoreDirector<LeaderScheduleSolution> scoreDirector, Leader leader) {
+        // Do nothing, the group it left gets afterListVariableChanged.
+    }
+
+    @Override
+    public void beforeListVariableChanged(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group, int fromIndex, int toIndex) {
+        addRange(scoreDirector, group, fromIndex, toIndex, -1);
+    }
+
+    @Override
+    public void afterListVariableChanged(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group, int fromIndex, int toIndex) {
+        addRange(scoreDirector, group, fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Adds the leaders of the range to the aggregates, or subtracts them if the sign is -1.
+     */
+    private static void addRange(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group, int fromIndex, int toIndex,
+                                 int sign) {
+        AffinityTable affinities = scoreDirector.getWorkingSolution().getAffinityTable();
+        int experience = 0;
+        int affinity = 0;
+        List<Leader> leaders = group.getLeaders();
+        for (int i = fromIndex; i < toIndex; i++) {
+            Leader leader = leaders.get(i);
+            experience += leader.getExperience();
+            affinity += affinities.getReward(leader.getIndex(), group.getIndex());
+        }
+        set(scoreDirector, group, group.getLeaderCount() + sign * (toIndex - fromIndex),
+                group.getTotalExperience() + sign * experience, group.getAffinityTotal() + sign * affinity);
+    }
+
+    private static void update(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group) {
+        set(scoreDirector, group, group.getLeaders() == null ? 0 : group.getLeaders().size(), group.computeTotalExperience(),
+                group.computeAffinityTotal(scoreDirector.getWorkingSolution().getAffinityTable()));
+    }
+
+    private static void set(ScoreDirector<LeaderScheduleSolution> scoreDirector, Group group,
+                            int leaderCount, int totalExperience, int affinityTotal) {
+        if (leaderCount != group.getLeaderCount()) {
+            scoreDirector.beforeVariableChanged(group, "leaderCount");
+            group.setLeaderCount(leaderCount);
+            scoreDirector.afterVariableChanged(group, "leaderCount");
+        }
+        if (totalExperience != group.getTotalExperience()) {
+            scoreDirector.beforeVariableChanged(group, "totalExperience");
+            group.setTotalExperience(totalExperience);
+            scoreDirector.afterVariableChanged(group, "totalExperience");
+        }
+        if (affinityTotal != group.getAffinityTotal()) {
+            scoreDirector.beforeVariableChanged(group, "affinityTotal");
+            group.setAffinityTotal(affinityTotal);
+            scoreDirector.afterVariableChanged(group, "affinityTotal");
+        }
+    }
+}
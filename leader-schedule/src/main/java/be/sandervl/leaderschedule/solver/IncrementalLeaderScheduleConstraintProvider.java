@@ -0,0 +1,137 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.function.TriPredicate;
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.score.stream.Constraint;
+import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderRelations;
+
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import static ai.timefold.solver.core.api.score.stream.Joiners.equal;
+import static ai.timefold.solver.core.api.score.stream.Joiners.filtering;
+import static be.sandervl.leaderschedule.solver.LeaderScheduleConstraintProvider.BENDABLE_SCORE_HARD_LEVELS_SIZE;
+import static be.sandervl.leaderschedule.solver.LeaderScheduleConstraintProvider.BENDABLE_SCORE_SOFT_LEVELS_SIZE;
+
+/**
+ * Same constraints and weights as {@link LeaderScheduleConstraintProvider}, but built on {@link Leader} tuples
+ * joined on {@link Leader#getGroup()} instead of walking {@link Group#getLeaders()} inside a lambda.
+ * A list variable move then only re-evaluates the pairs of the leaders that moved,
+ * instead of every leader pair of both groups involved.
+ * Preferred and unwanted pairs are read from the {@link LeaderRelations} bit matrices;
+ * group sizes, experience and affinity from the {@link Group} aggregates.
+ * <p>
+ * Selected in {@code solverConfig.xml}; see {@code application.properties} to switch back.
+ * <p>
+ * Every predicate and weigher is passed through a {@code profiled} hook with the name of its constraint,
+ * which {@link ProfilingConstraintProvider} overrides to time it.
+ */
+public class IncrementalLeaderScheduleConstraintProvider implements ConstraintProvider {
+
+    public static final String MINIMUM_LEADERS = "minimum leaders not respected";
+    public static final String MAXIMUM_LEADERS = "maximum leaders not respected";
+    public static final String UNWANTED_LEADER = "unwanted leader not respected";
+    public static final String AT_LEAST_EXPERIENCE = "At least 1 year experience";
+    public static final String GROUP_AFFINITY = "Maximize group affinity";
+    public static final String PREFERRED_LEADER = "preferred leaders respected";
+    public static final String BALANCED_EXPERIENCE = "balanced experience";
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        return new Constraint[]{
+                minimumNumberOfLeaders(constraintFactory),
+                maximumNumberOfLeaders(constraintFactory),
+                maximizeGroupAffinity(constraintFactory),
+                noUnwantedLeader(constraintFactory),
+                balanceExperience(constraintFactory),
+                preferredLeader(constraintFactory),
+                atLeastExperience(constraintFactory),
+        };
+    }
+
+    protected Constraint minimumNumberOfLeaders(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Group.class)
+                .filter(profiled(MINIMUM_LEADERS, group -> group.getLeaderCount() < group.getMinimumLeaders()))
+                .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
+                .asConstraint(MINIMUM_LEADERS);
+    }
+
+    protected Constraint maximumNumberOfLeaders(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Group.class)
+                .filter(profiled(MAXIMUM_LEADERS, group -> group.getLeaderCount() > group.getMaximumLeaders()))
+                .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
+                .asConstraint(MAXIMUM_LEADERS);
+    }
+
+    protected Constraint noUnwantedLeader(ConstraintFactory constraintFactory) {
+        // Penalized once per group, no matter how many unwanted pairs it holds.
+        // Unassigned leaders share the null group, but aren't in a group together.
+        return constraintFactory.forEach(Leader.class)
+                .join(LeaderRelations.class, filtering(profiled(UNWANTED_LEADER,
+                        (Leader a, LeaderRelations relations) -> a.getGroup() != null && relations.hasAversions(a.getIndex()))))
+                .join(Leader.class,
+                        equal((a, relations) -> a.getGroup(), Leader::getGroup),
+                        filtering(profiled(UNWANTED_LEADER,
+                                (Leader a, LeaderRelations relations, Leader b) -> relations.isUnwanted(a.getIndex(), b.getIndex()))))
+                .groupBy((a, relations, b) -> a.getGroup())
+                .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
+                .asConstraint(UNWANTED_LEADER);
+    }
+
+    protected Constraint atLeastExperience(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Group.class)
+                .filter(profiled(AT_LEAST_EXPERIENCE, group -> group.getTotalExperience() <= 0))
+                .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
+                .asConstraint(AT_LEAST_EXPERIENCE);
+    }
+
+    protected Constraint maximizeGroupAffinity(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Group.class)
+                .reward(BendableScore.ofSoft(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1),
+                        profiledWeigher(GROUP_AFFINITY, Group::getAffinityTotal))
+                .asConstraint(GROUP_AFFINITY);
+    }
+
+    protected Constraint preferredLeader(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Leader.class)
+                .join(LeaderRelations.class, filtering(profiled(PREFERRED_LEADER,
+                        (Leader a, LeaderRelations relations) -> a.getGroup() != null && relations.hasPreferences(a.getIndex()))))
+                .join(Leader.class,
+                        equal((a, relations) -> a.getGroup(), Leader::getGroup),
+                        filtering(profiled(PREFERRED_LEADER,
+                                (Leader a, LeaderRelations relations, Leader b) -> relations.isPreferred(a.getIndex(), b.getIndex()))))
+                .reward(BendableScore.ofSoft(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 1, 1))
+                .asConstraint(PREFERRED_LEADER);
+    }
+
+    protected Constraint balanceExperience(ConstraintFactory constraintFactory) {
+        return constraintFactory.forEach(Group.class)
+                .filter(profiled(BALANCED_EXPERIENCE, group -> group.getTotalExperience() <= 1))
+                .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
+                .asConstraint(BALANCED_EXPERIENCE);
+    }
+
+    // The hooks return the lambda itself, so the constraints cost nothing extra unless they are profiled.
+
+    protected <A> Predicate<A> profiled(String constraintName, Predicate<A> predicate) {
+        return predicate;
+    }
+
+    protected <A, B> BiPredicate<A, B> profiled(String constraintName, BiPredicate<A, B> predicate) {
+        return predicate;
+    }
+
+    protected <A, B, C> TriPredicate<A, B, C> profiled(String constraintName, TriPredicate<A, B, C> predicate) {
+        return predicate;
+    }
+
+    protected <A> ToIntFunction<A> profiledWeigher(String constraintName, ToIntFunction<A> weigher) {
+        return weigher;
+    }
+
+}
@@ -0,0 +1,69 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks where a leader should move to by their place in the preference graph, so that nearby selection
+ * in {@code nearbySolverConfig.xml} mostly tries moves that can improve the score:
+ * <ul>
+ *     <li>a group is as near as the leader's {@link Affinity} for it is high,</li>
+ *     <li>a leader that either one prefers is nearest, one that either one doesn't want is farthest,</li>
+ *     <li>any other leader is as near as the group both of them like best.</li>
+ * </ul>
+ * The solver computes all distances once when a phase starts, so they only depend on problem facts,
+ * never on the current {@link Leader#getGroup()}.
+ * <p>
+ * Only Timefold Solver Enterprise supports nearby selection, and {@link NearbyDistanceMeter} isn't public API yet,
+ * so this is only used when the {@code nearby} profile is enabled next to {@code enterprise}.
+ */
+public class LeaderNearbyDistanceMeter implements NearbyDistanceMeter<Leader, Object> {
+
+    private static final int MAX_REWARD = Affinity.HIGH.getDurationMultiplier();
+    private static final double UNWANTED_DISTANCE = 2.0 * (MAX_REWARD + 1);
+
+    @Override
+    public double getNearbyDistance(Leader origin, Object destination) {
+        if (destination instanceof Group group) {
+            return MAX_REWARD - getReward(origin, group.getName());
+        }
+        Leader other = (Leader) destination;
+        if (contains(origin.getPreferredLeaders(), other) || contains(other.getPreferredLeaders(), origin)) {
+            return 0.0;
+        }
+        if (contains(origin.getUnwantedLeaders(), other) || contains(other.getUnwantedLeaders(), origin)) {
+            return UNWANTED_DISTANCE;
+        }
+        return 1.0 + MAX_REWARD - getSharedReward(origin, other);
+    }
+
+    private static int getSharedReward(Leader a, Leader b) {
+        Map<String, Affinity> affinityMap = a.getGroupAffinityMap();
+        if (affinityMap == null) {
+            return 0;
+        }
+        var result = 0;
+        for (Map.Entry<String, Affinity> entry : affinityMap.entrySet()) {
+            result = Math.max(result, Math.min(entry.getValue().getDurationMultiplier(), getReward(b, entry.getKey())));
+        }
+        return result;
+    }
+
+    private static int getReward(Leader leader, String groupName) {
+        Map<String, Affinity> affinityMap = leader.getGroupAffinityMap();
+        if (affinityMap == null) {
+            return 0;
+        }
+        Affinity affinity = affinityMap.get(groupName);
+        return affinity == null ? 0 : affinity.getDurationMultiplier();
+    }
+
+    private static boolean contains(Set<Leader> leaders, Leader leader) {
+        return leaders != null && leaders.contains(leader);
+    }
+}
@@ -7,8 +7,15 @@ import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
 import be.sandervl.leaderschedule.domain.Affinity;
 import be.sandervl.leaderschedule.domain.Group;
 import be.sandervl.leaderschedule.domain.Leader;
-import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
 
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The reference constraints: every constraint walks {@link Group#getLeaders()} and reads the preferences and affinities
+ * of the leaders themselves, so it depends on neither the group aggregates nor the compiled problem facts.
+ * Slow, but the score {@link IncrementalLeaderScheduleConstraintProvider} has to match.
+ */
 public class LeaderScheduleConstraintProvider implements ConstraintProvider {
 
     public static final int BENDABLE_SCORE_HARD_LEVELS_SIZE = 1;
@@ -17,8 +24,12 @@ public class LeaderScheduleConstraintProvider implements ConstraintProvider {
     private static int getPreferredMatches(Group group) {
         var result = 0;
         for (Leader a : group.getLeaders()) {
+            Set<Leader> preferredLeaders = a.getPreferredLeaders();
+            if (preferredLeaders == null) {
+                continue;
+            }
             for (Leader b : group.getLeaders()) {
-                if (a.getPreferredLeaders() != null && a.getPreferredLeaders().contains(b)) {
+                if (preferredLeaders.contains(b)) {
                     result++;
                 }
             }
@@ -26,6 +37,40 @@ public class LeaderScheduleConstraintProvider implements ConstraintProvider {
         return result;
     }
 
+    private static boolean hasUnwantedPair(Group group) {
+        for (Leader a : group.getLeaders()) {
+            Set<Leader> unwantedLeaders = a.getUnwantedLeaders();
+            if (unwantedLeaders == null) {
+                continue;
+            }
+            for (Leader b : group.getLeaders()) {
+                if (unwantedLeaders.contains(b)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int getTotalExperience(Group group) {
+        var result = 0;
+        for (Leader leader : group.getLeaders()) {
+            result += leader.getExperience();
+        }
+        return result;
+    }
+
+    private static int getAffinityTotal(Group group) {
+        var result = 0;
+        for (Leader leader : group.getLeaders()) {
+            Map<String, Affinity> affinityMap = leader.getGroupAffinityMap();
+            if (affinityMap != null) {
+                result += affinityMap.getOrDefault(group.getName(), Affinity.NONE).getDurationMultiplier();
+            }
+        }
+        return result;
+    }
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[]{
@@ -56,14 +101,14 @@ public class LeaderScheduleConstraintProvider implements ConstraintProvider {
 
     protected Constraint noUnwantedLeader(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Group.class)
-                .filter(group -> group.getLeaders().stream().anyMatch(a -> group.getLeaders().stream().anyMatch(b -> a.getUnwantedLeaders() != null && a.getUnwantedLeaders().contains(b))))
+                .filter(LeaderScheduleConstraintProvider::hasUnwantedPair)
                 .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
                 .asConstraint("unwanted leader not respected");
     }
 
     protected Constraint atLeastExperience(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Group.class)
-                .filter(group -> group.getLeaders().stream().mapToInt(Leader::getExperience).sum() <= 0)
+                .filter(group -> getTotalExperience(group) <= 0)
                 .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
                 .asConstraint("At least 1 year experience");
     }
@@ -85,7 +130,7 @@ public class LeaderScheduleConstraintProvider implements ConstraintProvider {
     protected Constraint maximizeGroupAffinity(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Group.class)
                 .reward(BendableScore.ofSoft(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1),
-                        group -> group.getLeaders().stream().map(Leader::getGroupAffinityMap).mapToInt(affinity -> affinity.getOrDefault(group.getName(), Affinity.NONE).getDurationMultiplier()).sum())
+                        LeaderScheduleConstraintProvider::getAffinityTotal)
                 .asConstraint("Maximize group affinity");
     }
 
@@ -98,7 +143,7 @@ public class LeaderScheduleConstraintProvider implements ConstraintProvider {
 
     protected Constraint balanceExperience(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Group.class)
-                .filter(g -> g.getLeaders().stream().map(Leader::getExperience).reduce(0, Integer::sum) <= 1)
+                .filter(group -> getTotalExperience(group) <= 1)
                 .penalize(BendableScore.ofHard(BENDABLE_SCORE_HARD_LEVELS_SIZE, BENDABLE_SCORE_SOFT_LEVELS_SIZE, 0, 1))
                 .asConstraint("balanced experience");
     }
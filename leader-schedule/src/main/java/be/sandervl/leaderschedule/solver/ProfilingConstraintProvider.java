@@ -0,0 +1,82 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.function.TriPredicate;
+
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Same constraints as {@link IncrementalLeaderScheduleConstraintProvider}, but times every predicate and weigher
+ * into the {@link ConstraintProfiler} of the solver thread, if any.
+ * <p>
+ * Only the lambdas of a constraint are timed, not the joins and groupings Timefold does in between,
+ * so the invocation count is the better sign of a constraint that evaluates too many tuples.
+ * Reading the clock twice per invocation slows scoring down, which is why only profiled jobs use this provider.
+ */
+public class ProfilingConstraintProvider extends IncrementalLeaderScheduleConstraintProvider {
+
+    @Override
+    protected <A> Predicate<A> profiled(String constraintName, Predicate<A> predicate) {
+        return a -> {
+            ConstraintProfiler profiler = ConstraintProfiler.current();
+            if (profiler == null) {
+                return predicate.test(a);
+            }
+            long start = System.nanoTime();
+            try {
+                return predicate.test(a);
+            } finally {
+                profiler.record(constraintName, start);
+            }
+        };
+    }
+
+    @Override
+    protected <A, B> BiPredicate<A, B> profiled(String constraintName, BiPredicate<A, B> predicate) {
+        return (a, b) -> {
+            ConstraintProfiler profiler = ConstraintProfiler.current();
+            if (profiler == null) {
+                return predicate.test(a, b);
+            }
+            long start = System.nanoTime();
+            try {
+                return predicate.test(a, b);
+            } finally {
+                profiler.record(constraintName, start);
+            }
+        };
+    }
+
+    @Override
+    protected <A, B, C> TriPredicate<A, B, C> profiled(String constraintName, TriPredicate<A, B, C> predicate) {
+        return (a, b, c) -> {
+            ConstraintProfiler profiler = ConstraintProfiler.current();
+            if (profiler == null) {
+                return predicate.test(a, b, c);
+            }
+            long start = System.nanoTime();
+            try {
+                return predicate.test(a, b, c);
+            } finally {
+                profiler.record(constraintName, start);
+            }
+        };
+    }
+
+    @Override
+    protected <A> ToIntFunction<A> profiledWeigher(String constraintName, ToIntFunction<A> weigher) {
+        return a -> {
+            ConstraintProfiler profiler = ConstraintProfiler.current();
+            if (profiler == null) {
+                return weigher.applyAsInt(a);
+            }
+            long start = System.nanoTime();
+            try {
+                return weigher.applyAsInt(a);
+            } finally {
+                profiler.record(constraintName, start);
+            }
+        };
+    }
+}
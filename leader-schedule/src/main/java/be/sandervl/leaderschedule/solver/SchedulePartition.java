@@ -0,0 +1,13 @@
+package be.sandervl.leaderschedule.solver;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+/**
+ * A part of a schedule that can be solved on its own, see {@link SchedulePartitioner}.
+ *
+ * @param problem copies of the leaders and groups of the part, with its problem facts compiled
+ * @param leaderPositions for every leader of the problem, its position in the schedule that was split
+ * @param groupPositions for every group of the problem, its position in the schedule that was split
+ */
+public record SchedulePartition(LeaderScheduleSolution problem, int[] leaderPositions, int[] groupPositions) {
+}
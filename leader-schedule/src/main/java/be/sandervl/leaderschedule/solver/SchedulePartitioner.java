@@ -0,0 +1,243 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a schedule into partitions that can be solved independently, and merges their solutions back together.
+ * <p>
+ * Leaders and groups are linked by group affinities, preferred and unwanted leaders and existing assignments.
+ * Each connected component of those links is a cluster, like a chapter of a federation, that no constraint crosses:
+ * every constraint scores leaders within one group, and a leader only ever gains by joining a group they are linked to.
+ * Clusters without groups or without leaders can't be solved alone, so they join the largest cluster.
+ * The clusters are then packed into at most the requested number of partitions of about the same size.
+ * <p>
+ * A leader never leaves the partition of their cluster, so the merged solution can be worse than solving the whole
+ * schedule at once when a cluster has more leaders than its groups can hold.
+ * The score of the merged solution is the sum of the scores of the partitions.
+ */
+public final class SchedulePartitioner {
+
+    private SchedulePartitioner() {
+    }
+
+    /**
+     * @param schedule not changed, every partition gets copies of its leaders and groups
+     * @param maxPartitions at least 1
+     * @return the partitions, a single one if the schedule can't be split
+     */
+    public static List<SchedulePartition> split(LeaderScheduleSolution schedule, int maxPartitions) {
+        List<Leader> leaders = schedule.getLeaders();
+        List<Group> groups = schedule.getGroups();
+        int leaderCount = leaders.size();
+        // Leaders are nodes 0 to leaderCount - 1, groups follow.
+        var components = new UnionFind(leaderCount + groups.size());
+        Map<Leader, Integer> leaderPositions = new HashMap<>();
+        for (int i = 0; i < leaderCount; i++) {
+            leaderPositions.put(leaders.get(i), i);
+        }
+        Map<String, Integer> groupPositions = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            groupPositions.put(groups.get(i).getName(), i);
+        }
+        for (int i = 0; i < leaderCount; i++) {
+            Leader leader = leaders.get(i);
+            if (leader.getGroupAffinityMap() != null) {
+                for (Map.Entry<String, Affinity> entry : leader.getGroupAffinityMap().entrySet()) {
+                    Integer group = groupPositions.get(entry.getKey());
+                    if (group != null && entry.getValue() != Affinity.NONE) {
+                        components.union(i, leaderCount + group);
+                    }
+                }
+            }
+            unionAll(components, i, leader.getPreferredLeaders(), leaderPositions);
+            unionAll(components, i, leader.getUnwantedLeaders(), leaderPositions);
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            unionAll(components, leaderCount + i, groups.get(i).getLeaders(), leaderPositions);
+        }
+
+        Map<Integer, Cluster> clustersByRoot = new HashMap<>();
+        for (int node = 0; node < leaderCount + groups.size(); node++) {
+            Cluster cluster = clustersByRoot.computeIfAbsent(components.find(node), root -> new Cluster());
+            if (node < leaderCount) {
+                cluster.leaders.add(node);
+            } else {
+                cluster.groups.add(node - leaderCount);
+            }
+        }
+        List<Cluster> clusters = new ArrayList<>(clustersByRoot.values());
+        if (clusters.isEmpty()) {
+            return List.of(copy(schedule, new Cluster()));
+        }
+        clusters.sort(Comparator.comparingInt(Cluster::size).reversed());
+        Cluster largest = clusters.get(0);
+        List<Cluster> solvable = new ArrayList<>();
+        solvable.add(largest);
+        for (Cluster cluster : clusters.subList(1, clusters.size())) {
+            if (cluster.leaders.isEmpty() || cluster.groups.isEmpty()) {
+                largest.leaders.addAll(cluster.leaders);
+                largest.groups.addAll(cluster.groups);
+            } else {
+                solvable.add(cluster);
+            }
+        }
+
+        // Largest first into the smallest bin.
+        int binCount = Math.min(Math.max(1, maxPartitions), solvable.size());
+        List<Cluster> bins = new ArrayList<>(binCount);
+        for (int i = 0; i < binCount; i++) {
+            bins.add(new Cluster());
+        }
+        for (Cluster cluster : solvable) {
+            Cluster bin = bins.stream().min(Comparator.comparingInt(Cluster::size)).orElseThrow();
+            bin.leaders.addAll(cluster.leaders);
+            bin.groups.addAll(cluster.groups);
+        }
+        List<SchedulePartition> partitions = new ArrayList<>(binCount);
+        for (Cluster bin : bins) {
+            partitions.add(copy(schedule, bin));
+        }
+        return partitions;
+    }
+
+    /**
+     * Puts the leaders and groups of the partition solutions back in the order of the schedule that was split.
+     *
+     * @param solutions a solution per partition, in the same order
+     * @param template the schedule that was split
+     * @return a new schedule without compiled problem facts, scored with the sum of the partition scores
+     */
+    public static LeaderScheduleSolution merge(LeaderScheduleSolution template, List<SchedulePartition> partitions,
+                                               List<LeaderScheduleSolution> solutions) {
+        var leaders = new Leader[template.getLeaders().size()];
+        var groups = new Group[template.getGroups().size()];
+        BendableScore score = null;
+        for (int p = 0; p < partitions.size(); p++) {
+            SchedulePartition partition = partitions.get(p);
+            LeaderScheduleSolution solution = solutions.get(p);
+            for (int i = 0; i < partition.leaderPositions().length; i++) {
+                leaders[partition.leaderPositions()[i]] = solution.getLeaders().get(i);
+            }
+            for (int i = 0; i < partition.groupPositions().length; i++) {
+                groups[partition.groupPositions()[i]] = solution.getGroups().get(i);
+            }
+            if (solution.getScore() != null) {
+                score = score == null ? solution.getScore() : score.add(solution.getScore());
+            }
+        }
+        var merged = new LeaderScheduleSolution(score, null);
+        merged.setLeaders(new ArrayList<>(Arrays.asList(leaders)));
+        merged.setGroups(new ArrayList<>(Arrays.asList(groups)));
+        return merged;
+    }
+
+    private static void unionAll(UnionFind components, int node, Iterable<Leader> leaders, Map<Leader, Integer> leaderPositions) {
+        if (leaders == null) {
+            return;
+        }
+        for (Leader leader : leaders) {
+            Integer other = leaderPositions.get(leader);
+            if (other != null) {
+                components.union(node, other);
+            }
+        }
+    }
+
+    private static SchedulePartition copy(LeaderScheduleSolution schedule, Cluster cluster) {
+        cluster.leaders.sort(null);
+        cluster.groups.sort(null);
+        Map<Leader, Leader> copies = new HashMap<>();
+        List<Leader> leaders = new ArrayList<>(cluster.leaders.size());
+        for (int position : cluster.leaders) {
+            Leader original = schedule.getLeaders().get(position);
+            var copy = new Leader(original.getFullName(), original.getExperience());
+            copy.setGroupAffinityMap(original.getGroupAffinityMap());
+            copies.put(original, copy);
+            leaders.add(copy);
+        }
+        for (int position : cluster.leaders) {
+            Leader original = schedule.getLeaders().get(position);
+            Leader copy = copies.get(original);
+            copy.setPreferredLeaders(copyAll(original.getPreferredLeaders(), copies));
+            copy.setUnwantedLeaders(copyAll(original.getUnwantedLeaders(), copies));
+        }
+        List<Group> groups = new ArrayList<>(cluster.groups.size());
+        for (int position : cluster.groups) {
+            Group original = schedule.getGroups().get(position);
+            var copy = new Group(original.getName(), original.getMinimumLeaders(), original.getMaximumLeaders());
+            for (Leader leader : original.getLeaders()) {
+                Leader leaderCopy = copies.get(leader);
+                copy.getLeaders().add(leaderCopy);
+                leaderCopy.setGroup(copy);
+            }
+            groups.add(copy);
+        }
+        var problem = new LeaderScheduleSolution();
+        problem.setLeaders(leaders);
+        problem.setGroups(groups);
+        problem.compileProblemFacts();
+        return new SchedulePartition(problem,
+                cluster.leaders.stream().mapToInt(Integer::intValue).toArray(),
+                cluster.groups.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static Set<Leader> copyAll(Set<Leader> leaders, Map<Leader, Leader> copies) {
+        if (leaders == null) {
+            return null;
+        }
+        Set<Leader> result = new HashSet<>();
+        for (Leader leader : leaders) {
+            Leader copy = copies.get(leader);
+            // Leaders outside the schedule can't be linked to anyone.
+            if (copy != null) {
+                result.add(copy);
+            }
+        }
+        return result;
+    }
+
+    private static final class Cluster {
+        private final List<Integer> leaders = new ArrayList<>();
+        private final List<Integer> groups = new ArrayList<>();
+
+        private int size() {
+            return leaders.size() + groups.size();
+        }
+    }
+
+    private static final class UnionFind {
+        private final int[] parents;
+
+        private UnionFind(int size) {
+            parents = new int[size];
+            for (int i = 0; i < size; i++) {
+                parents[i] = i;
+            }
+        }
+
+        private int find(int node) {
+            while (parents[node] != node) {
+                parents[node] = parents[parents[node]];
+                node = parents[node];
+            }
+            return node;
+        }
+
+        private void union(int a, int b) {
+            parents[find(a)] = find(b);
+        }
+    }
+}
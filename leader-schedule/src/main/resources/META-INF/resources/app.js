@@ -1,4 +1,4 @@
-let autoRefreshIntervalId = null;
+let solutionEventSource = null;
 
 
 let planId = null;
@@ -50,9 +50,7 @@ function refreshSchedule() {
     }
 
     $.getJSON(path, function (plan) {
-        loadedPlan = plan;
-        $('#exportData').attr('href', 'data:text/plain;charset=utf-8,' + JSON.stringify(loadedPlan));
-        renderSchedule(plan);
+        loadSchedule(plan);
     })
         .fail(function (xhr, ajaxOptions, thrownError) {
             showError("Getting the schedule has failed.", xhr);
@@ -61,6 +59,34 @@ function refreshSchedule() {
 }
 
 
+function loadSchedule(plan) {
+    loadedPlan = plan;
+    $('#exportData').attr('href', 'data:text/plain;charset=utf-8,' + JSON.stringify(loadedPlan));
+    renderSchedule(plan);
+}
+
+function subscribeToSolutions() {
+    solutionEventSource = new EventSource("/schedules/" + planId + "/events?solution=true");
+    solutionEventSource.addEventListener("solution", function (event) {
+        loadSchedule(JSON.parse(event.data));
+    });
+    solutionEventSource.addEventListener("score", function (event) {
+        let scoreEvent = JSON.parse(event.data);
+        $("#score").text("Score: " + (scoreEvent.score == null ? "?" : scoreEvent.score));
+        if (scoreEvent.solverStatus === "NOT_SOLVING") {
+            refreshSolvingButtons(false);
+        }
+    });
+    solutionEventSource.addEventListener("failed", function (event) {
+        showSimpleError("Solving has failed: " + JSON.parse(event.data).message);
+        refreshSolvingButtons(false);
+    });
+    solutionEventSource.addEventListener("error", function () {
+        // The server closed the stream, which it only does once solving has ended.
+        refreshSolvingButtons(false);
+    });
+}
+
 function renderSchedule(plan) {
     refreshSolvingButtons(plan.solverStatus != null && plan.solverStatus !== "NOT_SOLVING");
     $("#score").text("Score: " + (plan.score == null ? "?" : plan.score));
@@ -173,15 +199,15 @@ function refreshSolvingButtons(solving) {
     if (solving) {
         $("#solveButton").hide();
         $("#stopSolvingButton").show();
-        if (autoRefreshIntervalId == null) {
-            autoRefreshIntervalId = setInterval(refreshSchedule, 2000);
+        if (solutionEventSource == null) {
+            subscribeToSolutions();
         }
     } else {
         $("#solveButton").show();
         $("#stopSolvingButton").hide();
-        if (autoRefreshIntervalId != null) {
-            clearInterval(autoRefreshIntervalId);
-            autoRefreshIntervalId = null;
+        if (solutionEventSource != null) {
+            solutionEventSource.close();
+            solutionEventSource = null;
         }
     }
 }
@@ -0,0 +1,136 @@
+package be.sandervl.leaderschedule.domain;
+
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarScheduleCodecTest {
+
+    private static final int MAGIC = 0x4C534331;
+
+    @Test
+    void roundTrip() throws IOException {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", -1);
+        Leader cas = new Leader("Cas", 0);
+        ann.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH, "Elsewhere", Affinity.LOW));
+        bob.setGroupAffinityMap(null);
+        ann.setPreferredLeaders(Set.of(bob, cas));
+        cas.setUnwantedLeaders(Set.of(ann));
+        var speelclub = new Group("Speelclub", 1, 3);
+        speelclub.setLeaders(new ArrayList<>(List.of(cas, ann)));
+        var rakkers = new Group("Rakkers", 0, 2);
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(List.of(speelclub, rakkers));
+        schedule.setLeaders(List.of(ann, bob, cas));
+        schedule.setScore(BendableScore.of(new int[] { -3 }, new int[] { 7, -2 }));
+        schedule.setSolverStatus(SolverStatus.SOLVING_ACTIVE);
+
+        LeaderScheduleSolution read = ColumnarScheduleCodec.read(input(write(schedule)));
+
+        assertThat(read.getScore()).isEqualTo(schedule.getScore());
+        assertThat(read.getSolverStatus()).isEqualTo(SolverStatus.SOLVING_ACTIVE);
+        assertThat(read.getGroups().stream().map(Group::getName).toList()).containsExactly("Speelclub", "Rakkers");
+        assertThat(read.getGroups().get(0).getMinimumLeaders()).isEqualTo(1);
+        assertThat(read.getGroups().get(0).getMaximumLeaders()).isEqualTo(3);
+        assertThat(read.getGroups().get(0).getLeaders()).isEqualTo(List.of(cas, ann));
+        assertThat(read.getGroups().get(1).getLeaders()).isEqualTo(List.of());
+        List<Leader> leaders = read.getLeaders();
+        assertThat(leaders).isEqualTo(List.of(ann, bob, cas));
+        assertThat(leaders.get(1).getExperience()).isEqualTo(-1);
+        assertThat(leaders.get(0).getGroupAffinityMap()).isEqualTo(ann.getGroupAffinityMap());
+        assertThat(leaders.get(1).getGroupAffinityMap()).isNull();
+        assertThat(leaders.get(0).getPreferredLeaders()).isEqualTo(Set.of(bob, cas));
+        assertThat(leaders.get(2).getUnwantedLeaders()).isEqualTo(Set.of(ann));
+        // Positions refer to the leaders that were read, not to new instances.
+        assertThat(leaders.get(0).getPreferredLeaders().contains(leaders.get(1))).isTrue();
+        assertThat(read.getGroups().get(0).getLeaders().get(0) == leaders.get(2)).isTrue();
+    }
+
+    @Test
+    void otherInputIsRejected() {
+        assertThatThrownBy(() -> ColumnarScheduleCodec.read(input(new byte[] { '{', '"', 'a', '"' })))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void truncatedInputIsRejected() throws IOException {
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(List.of(new Group("Speelclub", 1, 3)));
+        schedule.setLeaders(List.of(new Leader("Ann", 2)));
+        byte[] bytes = write(schedule);
+        assertThatThrownBy(() -> ColumnarScheduleCodec.read(input(Arrays.copyOf(bytes, bytes.length - 1))))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void hugeCountFailsOnTheMissingElementsWithoutAllocating() throws IOException {
+        // A group count of 2^31 - 1 in a few bytes.
+        byte[] bytes = header(0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+        assertThatThrownBy(() -> ColumnarScheduleCodec.read(input(bytes))).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void negativeCountIsRejected() throws IOException {
+        // -1 as an unsigned variable length integer.
+        byte[] bytes = header(0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+        assertThatThrownBy(() -> ColumnarScheduleCodec.read(input(bytes)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void positionOutOfRangeIsRejected() throws IOException {
+        var group = new Group("Speelclub", 1, 3);
+        var ann = new Leader("Ann", 2);
+        group.setLeaders(new ArrayList<>(List.of(ann)));
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(List.of(group));
+        schedule.setLeaders(List.of(ann));
+        byte[] bytes = write(schedule);
+        // The group's only leader position is the last byte, point it past the one leader.
+        bytes[bytes.length - 1] = 1;
+        assertThatThrownBy(() -> ColumnarScheduleCodec.read(input(bytes)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    private static byte[] header(int... groupCount) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        // Version 1, no score, no solver status.
+        out.writeByte(1);
+        out.writeBoolean(false);
+        out.writeByte(0);
+        for (int b : groupCount) {
+            out.writeByte(b);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] write(LeaderScheduleSolution schedule) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        ColumnarScheduleCodec.write(schedule, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
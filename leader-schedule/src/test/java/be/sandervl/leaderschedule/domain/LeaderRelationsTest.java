@@ -0,0 +1,85 @@
+package be.sandervl.leaderschedule.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeaderRelationsTest {
+
+    @Test
+    void sparseRelationsMatchTheDenseMatrices() {
+        var random = new Random(0);
+        List<Leader> leaders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            leaders.add(new Leader("Leader " + i, 1));
+        }
+        var outsider = new Leader("Outsider", 1);
+        for (Leader leader : leaders) {
+            leader.setPreferredLeaders(randomLeaders(random, leaders, outsider));
+            leader.setUnwantedLeaders(random.nextInt(4) == 0 ? null : randomLeaders(random, leaders, outsider));
+        }
+        LeaderRelations dense = LeaderRelations.compile(leaders, leaders.size());
+        LeaderRelations sparse = LeaderRelations.compile(leaders, leaders.size() - 1);
+        assertThat(dense.isDense()).isTrue();
+        assertThat(sparse.isDense()).isFalse();
+        for (Leader a : leaders) {
+            assertThat(sparse.hasPreferences(a.getIndex())).isEqualTo(dense.hasPreferences(a.getIndex()));
+            assertThat(sparse.hasAversions(a.getIndex())).isEqualTo(dense.hasAversions(a.getIndex()));
+            for (Leader b : leaders) {
+                assertThat(sparse.isPreferred(a.getIndex(), b.getIndex()))
+                        .as("%s prefers %s", a.getFullName(), b.getFullName())
+                        .isEqualTo(a.getPreferredLeaders().contains(b));
+                assertThat(sparse.isUnwanted(a.getIndex(), b.getIndex()))
+                        .as("%s doesn't want %s", a.getFullName(), b.getFullName())
+                        .isEqualTo(dense.isUnwanted(a.getIndex(), b.getIndex()));
+            }
+        }
+        assertThat(sparse.getMatrixBytes()).isLessThan(dense.getMatrixBytes());
+    }
+
+    @Test
+    void largeSchedulesAreSparse() {
+        List<Leader> leaders = new ArrayList<>();
+        for (int i = 0; i <= LeaderRelations.MAX_DENSE_SIZE; i++) {
+            leaders.add(new Leader("Leader " + i, 1));
+        }
+        leaders.get(0).setPreferredLeaders(Set.of(leaders.get(LeaderRelations.MAX_DENSE_SIZE)));
+        LeaderRelations relations = LeaderRelations.compile(leaders);
+        assertThat(relations.isDense()).isFalse();
+        assertThat(relations.isPreferred(0, LeaderRelations.MAX_DENSE_SIZE)).isTrue();
+        assertThat(relations.isPreferred(LeaderRelations.MAX_DENSE_SIZE, 0)).isFalse();
+    }
+
+    @Test
+    void leadersAddedAfterCompilingAreRejected() {
+        var group = new Group("Speelclub", 1, 4);
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(List.of(group));
+        schedule.setLeaders(new ArrayList<>(List.of(new Leader("Ann", 1))));
+        assertThatThrownBy(schedule::checkProblemFactsCompiled).isInstanceOf(IllegalStateException.class);
+        schedule.compileProblemFacts();
+        schedule.checkProblemFactsCompiled();
+        schedule.getLeaders().add(new Leader("Bob", 1));
+        assertThatThrownBy(schedule::checkProblemFactsCompiled)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Bob");
+    }
+
+    private static Set<Leader> randomLeaders(Random random, List<Leader> leaders, Leader outsider) {
+        Set<Leader> result = new LinkedHashSet<>();
+        for (int i = 0, count = random.nextInt(6); i < count; i++) {
+            result.add(leaders.get(random.nextInt(leaders.size())));
+        }
+        if (random.nextInt(8) == 0) {
+            result.add(outsider);
+        }
+        return result;
+    }
+}
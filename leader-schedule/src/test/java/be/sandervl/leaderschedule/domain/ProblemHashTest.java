@@ -0,0 +1,70 @@
+package be.sandervl.leaderschedule.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemHashTest {
+
+    @Test
+    void orderDoesNotMatter() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 1);
+        ann.setPreferredLeaders(Set.of(bob));
+        ann.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH, "Rakkers", Affinity.LOW));
+        var speelclub = new Group("Speelclub", 1, 3);
+        var rakkers = new Group("Rakkers", 0, 2);
+        assertThat(ProblemHash.of(schedule(List.of(ann, bob), List.of(speelclub, rakkers)), ""))
+                .isEqualTo(ProblemHash.of(schedule(List.of(bob, ann), List.of(rakkers, speelclub)), ""));
+    }
+
+    @Test
+    void preferredAndUnwantedLeadersHashDifferently() {
+        Leader preferring = new Leader("Ann", 2);
+        preferring.setPreferredLeaders(Set.of(new Leader("unwanted", 1)));
+        Leader avoiding = new Leader("Ann", 2);
+        avoiding.setUnwantedLeaders(Set.of(new Leader("unwanted", 1)));
+        assertThat(ProblemHash.of(schedule(List.of(preferring), List.of()), ""))
+                .isNotEqualTo(ProblemHash.of(schedule(List.of(avoiding), List.of()), ""));
+    }
+
+    @Test
+    void fieldBoundariesMatter() {
+        Leader ab = new Leader("ab", 1);
+        ab.setGroupAffinityMap(Map.of("c", Affinity.HIGH));
+        Leader a = new Leader("a", 1);
+        a.setGroupAffinityMap(Map.of("bc", Affinity.HIGH));
+        assertThat(ProblemHash.of(schedule(List.of(ab), List.of()), ""))
+                .isNotEqualTo(ProblemHash.of(schedule(List.of(a), List.of()), ""));
+    }
+
+    @Test
+    void nullIsNotTheStringNull() {
+        assertThat(ProblemHash.of(schedule(List.of(new Leader(null, 1)), List.of()), ""))
+                .isNotEqualTo(ProblemHash.of(schedule(List.of(new Leader("null", 1)), List.of()), ""));
+    }
+
+    @Test
+    void assignmentsOnlyCountWhenAsked() {
+        Leader ann = new Leader("Ann", 2);
+        var unassigned = new Group("Speelclub", 1, 3);
+        var assigned = new Group("Speelclub", 1, 3);
+        assigned.setLeaders(new ArrayList<>(List.of(ann)));
+        assertThat(ProblemHash.of(schedule(List.of(ann), List.of(unassigned)), ""))
+                .isEqualTo(ProblemHash.of(schedule(List.of(ann), List.of(assigned)), ""));
+        assertThat(ProblemHash.withAssignments(schedule(List.of(ann), List.of(unassigned)), ""))
+                .isNotEqualTo(ProblemHash.withAssignments(schedule(List.of(ann), List.of(assigned)), ""));
+    }
+
+    private static LeaderScheduleSolution schedule(List<Leader> leaders, List<Group> groups) {
+        var schedule = new LeaderScheduleSolution();
+        schedule.setLeaders(leaders);
+        schedule.setGroups(groups);
+        return schedule;
+    }
+}
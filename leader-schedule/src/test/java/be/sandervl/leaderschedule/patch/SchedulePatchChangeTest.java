@@ -0,0 +1,78 @@
+package be.sandervl.leaderschedule.patch;
+
+import ai.timefold.solver.core.api.solver.Solver;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import be.sandervl.leaderschedule.solver.IncrementalLeaderScheduleConstraintProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulePatchChangeTest {
+
+    @Test
+    void groupAggregatesFollowChangedAndRemovedLeaders() {
+        // FULL_ASSERT fails the solve as soon as the aggregates make the incremental score drift from a full recalculation.
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(LeaderScheduleSolution.class)
+                .withEntityClasses(Group.class, Leader.class)
+                .withConstraintProviderClass(IncrementalLeaderScheduleConstraintProvider.class)
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationSpentLimit(Duration.ofSeconds(2));
+        Solver<LeaderScheduleSolution> solver = SolverFactory.<LeaderScheduleSolution>create(solverConfig).buildSolver();
+        var patch = new SchedulePatch(
+                List.of(new LeaderPatch("Newcomer", 1, Map.of("Rakkers", Affinity.HIGH), Set.of("Leader 0"), null)),
+                List.of("Leader 1"),
+                List.of(new LeaderPatch("Leader 2", 5, null, null, null),
+                        new LeaderPatch("Leader 3", null, Map.of("Speelclub", Affinity.HIGH, "Rakkers", Affinity.LOW), null, null)),
+                List.of(new GroupPatch("Toppers", 1, 2)));
+        var patched = new AtomicBoolean();
+        solver.addEventListener(event -> {
+            if (patched.compareAndSet(false, true)) {
+                solver.addProblemChange(new SchedulePatchChange(patch));
+            }
+        });
+
+        LeaderScheduleSolution solution = solver.solve(schedule());
+
+        assertThat(patched.get()).isTrue();
+        assertThat(solution.getLeaders().stream().map(Leader::getFullName).toList()).contains("Newcomer");
+        for (Group group : solution.getGroups()) {
+            assertThat(group.getLeaderCount()).as("Leader count of %s", group.getName()).isEqualTo(group.getLeaders().size());
+            assertThat(group.getTotalExperience()).as("Experience of %s", group.getName()).isEqualTo(group.computeTotalExperience());
+            assertThat(group.getAffinityTotal()).as("Affinity of %s", group.getName())
+                    .isEqualTo(group.computeAffinityTotal(solution.getAffinityTable()));
+        }
+    }
+
+    private static LeaderScheduleSolution schedule() {
+        List<Group> groups = List.of(new Group("Speelclub", 2, 4), new Group("Rakkers", 2, 4), new Group("Toppers", 2, 4));
+        List<Leader> leaders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            var leader = new Leader("Leader " + i, i % 3);
+            leader.setGroupAffinityMap(Map.of(groups.get(i % groups.size()).getName(), Affinity.MEDIUM));
+            Group group = groups.get(i % groups.size());
+            group.getLeaders().add(leader);
+            leader.setGroup(group);
+            leaders.add(leader);
+        }
+        leaders.get(2).setUnwantedLeaders(Set.of(leaders.get(5)));
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(groups);
+        schedule.setLeaders(leaders);
+        schedule.compileProblemFacts();
+        return schedule;
+    }
+}
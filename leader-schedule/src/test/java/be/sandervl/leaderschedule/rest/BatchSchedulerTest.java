@@ -0,0 +1,155 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchSchedulerTest {
+
+    private final RecordingJobLauncher jobLauncher = new RecordingJobLauncher();
+    private final BatchScheduler batchScheduler = new BatchScheduler(jobLauncher, Optional.of(2), 100);
+
+    @Test
+    void batchIsOnlyQueuedIfEveryProblemRegisters() {
+        jobLauncher.failRegisteringAfter = 2;
+        assertThatThrownBy(() -> batchScheduler.submit("tenant", 0, problems(3)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(jobLauncher.cancelledJobIds).containsExactly("job-0", "job-1");
+        assertThat(jobLauncher.launchedJobIds).isEmpty();
+    }
+
+    @Test
+    void jobsLaunchOutsideTheLock() {
+        String batchId = batchScheduler.submit("tenant", 0, problems(3));
+        assertThat(jobLauncher.launchedJobIds).containsExactly("job-0", "job-1");
+        assertThat(jobLauncher.launchedHoldingLock).isFalse();
+        BatchStatus status = batchScheduler.getStatus(batchId);
+        assertThat(status.queued()).isEqualTo(1);
+        assertThat(status.solving()).isEqualTo(2);
+
+        jobLauncher.whenDone.get(0).run();
+        assertThat(jobLauncher.launchedJobIds).containsExactly("job-0", "job-1", "job-2");
+        assertThat(jobLauncher.launchedHoldingLock).isFalse();
+    }
+
+    @Test
+    void failedLaunchFreesItsSolverForTheNextJob() {
+        jobLauncher.failLaunching = "job-0";
+        String batchId = batchScheduler.submit("tenant", 0, problems(3));
+        assertThat(jobLauncher.launchedJobIds).containsExactly("job-0", "job-1", "job-2");
+        assertThat(jobLauncher.cancelledJobIds).containsExactly("job-0");
+        assertThat(batchScheduler.getStatus(batchId).finished()).isEqualTo(1);
+    }
+
+    @Test
+    void jobCancelledWhileStartingIsTerminatedOnceLaunched() {
+        jobLauncher.cancelWhileLaunching = "job-0";
+        batchScheduler.submit("tenant", 0, problems(1));
+        assertThat(jobLauncher.terminatedJobIds).containsExactly("job-0");
+        assertThat(jobLauncher.cancelledJobIds).isEmpty();
+    }
+
+    @Test
+    void jobsTakeASolverPerSolverJob() {
+        List<String> started = new ArrayList<>();
+        List<Runnable> whenDone = new ArrayList<>();
+        // Holds both solvers, but only starts one solver job, which frees the other.
+        batchScheduler.submit("partitioned", 2, done -> {
+            started.add("partitioned");
+            whenDone.add(done);
+            return 1;
+        });
+        batchScheduler.submit("portfolio", 2, done -> {
+            started.add("portfolio");
+            whenDone.add(done);
+            return 2;
+        });
+        // Waits behind the portfolio, which needs both solvers.
+        batchScheduler.submit("single", 1, done -> {
+            started.add("single");
+            whenDone.add(done);
+            return 1;
+        });
+        assertThat(started).containsExactly("partitioned");
+
+        whenDone.get(0).run();
+        assertThat(started).containsExactly("partitioned", "portfolio");
+        whenDone.get(1).run();
+        assertThat(started).containsExactly("partitioned", "portfolio", "single");
+    }
+
+    @Test
+    void jobNeverWaitsForMoreSolversThanThereAre() {
+        List<String> started = new ArrayList<>();
+        batchScheduler.submit("portfolio", 5, done -> {
+            started.add("portfolio");
+            return 5;
+        });
+        assertThat(started).containsExactly("portfolio");
+    }
+
+    private static List<LeaderScheduleSolution> problems(int count) {
+        List<LeaderScheduleSolution> problems = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            problems.add(new LeaderScheduleSolution());
+        }
+        return problems;
+    }
+
+    private final class RecordingJobLauncher extends JobLauncher {
+
+        private final List<String> launchedJobIds = new ArrayList<>();
+        private final List<String> cancelledJobIds = new ArrayList<>();
+        private final List<String> terminatedJobIds = new ArrayList<>();
+        private final List<Runnable> whenDone = new ArrayList<>();
+        private int registered = 0;
+        private int failRegisteringAfter = Integer.MAX_VALUE;
+        private String failLaunching = null;
+        private String cancelWhileLaunching = null;
+        private boolean launchedHoldingLock = false;
+
+        private RecordingJobLauncher() {
+            super(null, null, null, null, null, null, null, null, null, null,
+                    Duration.ofSeconds(3), Duration.ofMillis(500), Optional.of(2), Duration.ofSeconds(1));
+        }
+
+        @Override
+        public String register(LeaderScheduleSolution problem) {
+            if (registered == failRegisteringAfter) {
+                throw new IllegalStateException("Failed registering.");
+            }
+            return "job-" + registered++;
+        }
+
+        @Override
+        public int launch(String jobId, Runnable whenDone) {
+            launchedJobIds.add(jobId);
+            launchedHoldingLock |= Thread.holdsLock(batchScheduler);
+            if (jobId.equals(failLaunching)) {
+                throw new IllegalStateException("Failed launching.");
+            }
+            if (jobId.equals(cancelWhileLaunching)) {
+                assertThat(batchScheduler.cancel(jobId)).isFalse();
+            }
+            this.whenDone.add(whenDone);
+            return 1;
+        }
+
+        @Override
+        public void cancel(String jobId) {
+            cancelledJobIds.add(jobId);
+        }
+
+        @Override
+        public void terminateEarly(String jobId) {
+            terminatedJobIds.add(jobId);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package be.sandervl.leaderschedule.rest;
+
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobJournalTest {
+
+    private static final long REGION_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final List<JobJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        journals.forEach(JobJournal::shutdown);
+    }
+
+    @Test
+    void recoversJobsAfterRestart() {
+        JobJournal journal = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        journal.solving("solving", job("Ann", "Bob"), true);
+        journal.finished("finished", job("Cas"));
+        journal.finished("failed", job("Dirk").withException(new IllegalStateException("Failed.")));
+        journal.shutdown();
+
+        JobJournal restarted = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        assertThat(restarted.getJobIds()).isEqualTo(Set.of("solving", "finished"));
+        assertThat(restarted.getSolvingJobIds()).containsExactly("solving");
+        JobJournal.JournaledJob solving = restarted.load("solving");
+        assertThat(solving.finished()).isFalse();
+        assertThat(solving.schedule().getLeaders().stream().map(Leader::getFullName).toList()).containsExactly("Ann", "Bob");
+        assertThat(restarted.load("finished").finished()).isTrue();
+        assertThat(restarted.load("failed")).isNull();
+    }
+
+    @Test
+    void reopenedJobReplacesItsFinishedRecord() {
+        JobJournal journal = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        journal.finished("reopened", job("Ann"));
+        journal.solving("reopened", job("Bob"), true);
+        journal.finished("finished", job("Cas"));
+        // A late snapshot of a job that finished meanwhile.
+        journal.solving("finished", job("Dirk"), false);
+        journal.shutdown();
+
+        JobJournal restarted = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        assertThat(restarted.getSolvingJobIds()).containsExactly("reopened");
+        assertThat(restarted.load("reopened").schedule().getLeaders().get(0).getFullName()).isEqualTo("Bob");
+        assertThat(restarted.load("finished").finished()).isTrue();
+        assertThat(restarted.load("finished").schedule().getLeaders().get(0).getFullName()).isEqualTo("Cas");
+    }
+
+    @Test
+    void keepsTheStatusOfFinishedJobsInMemory() {
+        JobJournal journal = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        Job finished = job("Ann");
+        finished.schedule().setScore(BendableScore.of(new int[] { 0 }, new int[] { -2, 5 }));
+        journal.finished("finished", finished);
+        journal.solving("solving", job("Bob"), true);
+        journal.shutdown();
+
+        JobJournal restarted = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        JobStatus status = restarted.getFinishedStatus("finished");
+        assertThat(status.score()).isEqualTo(finished.schedule().getScore().toString());
+        assertThat(status.solverStatus()).isEqualTo(SolverStatus.NOT_SOLVING);
+        assertThat(restarted.getFinishedStatus("solving")).isNull();
+        assertThat(restarted.getFinishedStatus("unknown")).isNull();
+    }
+
+    @Test
+    void discardsTornTail() throws IOException {
+        JobJournal journal = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        journal.finished("first", job("Ann"));
+        journal.finished("torn", job("Bob"));
+        journal.shutdown();
+        corruptLastRecord();
+
+        JobJournal restarted = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        assertThat(restarted.getJobIds()).isEqualTo(Set.of("first"));
+        // The next record takes the place of the torn one.
+        restarted.finished("next", job("Cas"));
+        restarted.shutdown();
+
+        JobJournal again = open(REGION_BYTES, Duration.ofDays(7), Duration.ofHours(1));
+        assertThat(again.getJobIds()).isEqualTo(Set.of("first", "next"));
+        assertThat(again.load("next").schedule().getLeaders().get(0).getFullName()).isEqualTo("Cas");
+    }
+
+    @Test
+    void compactsSupersededRecordsInTheBackground() throws InterruptedException {
+        // Compacts as soon as less than half of the log is live.
+        JobJournal journal = open(0, Duration.ofDays(7), Duration.ofHours(1));
+        journal.finished("finished", job("Ann"));
+        long oneRecordBytes = journal.getLogBytes();
+        for (int i = 0; i < 20; i++) {
+            journal.solving("solving", job("Bob"), true);
+        }
+        // Without compacting, the log holds 21 records; compacted, it never holds more than twice the 2 live ones.
+        await(() -> journal.getLogBytes() < 5 * oneRecordBytes);
+        journal.shutdown();
+
+        JobJournal restarted = open(0, Duration.ofDays(7), Duration.ofHours(1));
+        assertThat(restarted.getJobIds()).isEqualTo(Set.of("finished", "solving"));
+        assertThat(restarted.load("solving").schedule().getLeaders().get(0).getFullName()).isEqualTo("Bob");
+    }
+
+    @Test
+    void expiresFinishedJobsWithoutCompacting() throws InterruptedException {
+        // Never large enough to compact.
+        JobJournal journal = open(Long.MAX_VALUE, Duration.ofMillis(50), Duration.ofMillis(10));
+        journal.finished("finished", job("Ann"));
+        journal.solving("solving", job("Bob"), true);
+        await(() -> !journal.getJobIds().contains("finished"));
+        assertThat(journal.getJobIds()).isEqualTo(Set.of("solving"));
+        assertThat(journal.load("finished")).isNull();
+        journal.shutdown();
+
+        JobJournal restarted = open(Long.MAX_VALUE, Duration.ofMillis(50), Duration.ofHours(1));
+        assertThat(restarted.getJobIds()).isEqualTo(Set.of("solving"));
+    }
+
+    private JobJournal open(long minCompactionBytes, Duration timeToLive, Duration expiryInterval) {
+        var journal = new JobJournal(Optional.of(directory.toString()), Duration.ofHours(1), Duration.ofHours(1),
+                new MemorySize(BigInteger.valueOf(REGION_BYTES)), new MemorySize(BigInteger.valueOf(minCompactionBytes)),
+                timeToLive, expiryInterval);
+        journals.add(journal);
+        return journal;
+    }
+
+    private void corruptLastRecord() throws IOException {
+        try (var channel = FileChannel.open(directory.resolve("jobs.journal"), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var bytes = ByteBuffer.allocate((int) channel.size());
+            channel.read(bytes, 0L);
+            int last = bytes.capacity() - 1;
+            while (bytes.get(last) == 0) {
+                last--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[] { (byte) ~bytes.get(last) }), last);
+        }
+    }
+
+    private static Job job(String... leaderNames) {
+        var group = new Group("Speelclub", 1, 4);
+        List<Leader> leaders = new ArrayList<>();
+        for (String leaderName : leaderNames) {
+            var leader = new Leader(leaderName, 1);
+            group.getLeaders().add(leader);
+            leader.setGroup(group);
+            leaders.add(leader);
+        }
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(List.of(group));
+        schedule.setLeaders(leaders);
+        return Job.ofSchedule(schedule);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the journal.");
+            }
+            Thread.sleep(10L);
+        }
+    }
+}
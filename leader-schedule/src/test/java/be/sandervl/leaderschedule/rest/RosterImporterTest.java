@@ -0,0 +1,73 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Leader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RosterImporterTest {
+
+    private static final String HEADER = "Tijdstempel,Naam,Ik wil volgend jaar in leiding staan,Mijn eerste keuze van groep,"
+            + "Mijn tweede keuze van groep,Mijn derde keuze van groep,Is er een leider waar je graag mee in leiding zou staan?,"
+            + "Column8,Is er een leider waar je niet graag mee in leiding zou staan?,Column10,experience\n";
+
+    private final RosterImporter rosterImporter = new RosterImporter();
+
+    @Test
+    void namesMatchRegardlessOfCaseAccentsAndWhitespace() {
+        String csv = HEADER
+                + "2024-01-15 14:30:25,Jasper Ceunen,Ja,Speelclub,Rakkers,Toppers,Ja,\"marie  peeters, Nobody\",Nee,,2\n"
+                + "2024-01-15 14:35:10,Marie Peeters,Ja,Rakkers,,,Nee,,Ja,Zoe Janssens en jasper ceunen,1\n"
+                + "2024-01-15 14:40:33,Zo\u00eb Janssens,Ja,Toppers,,,Ja,Marie Peeters,Nee,,0\n"
+                + "2024-01-15 14:45:00,Tom Willems,Nee,Toppers,,,Nee,,Nee,,3\n";
+
+        RosterImport roster = rosterImporter.read(new StringReader(csv), RosterImporter.defaultGroups());
+
+        List<Leader> leaders = roster.schedule().getLeaders();
+        assertThat(leaders.stream().map(Leader::getFullName).toList())
+                .containsExactly("Jasper Ceunen", "Marie Peeters", "Zo\u00eb Janssens");
+        Leader jasper = leaders.get(0);
+        Leader marie = leaders.get(1);
+        Leader zoe = leaders.get(2);
+        assertThat(jasper.getGroupAffinityMap()).containsEntry("Speelclub", Affinity.HIGH);
+        assertThat(jasper.getPreferredLeaders()).isEqualTo(Set.of(marie));
+        assertThat(marie.getUnwantedLeaders()).isEqualTo(Set.of(zoe, jasper));
+        assertThat(zoe.getPreferredLeaders()).isEqualTo(Set.of(marie));
+        assertThat(roster.unmatchedNames()).isEqualTo(Map.of("Jasper Ceunen", List.of("Nobody")));
+    }
+
+    /**
+     * Every leader names two others, typed differently, so resolving a name by scanning all leaders would take
+     * minutes at this size; the index resolves them in well under a second.
+     */
+    @Test
+    @Timeout(10)
+    void largeRosterImportsInLinearTime() {
+        int leaderCount = 30_000;
+        var csv = new StringBuilder(HEADER);
+        for (int i = 0; i < leaderCount; i++) {
+            String preferred = "  LEADER  " + ((i + 1) % leaderCount) + " ";
+            String unwanted = "L\u00e9ader " + ((i + 2) % leaderCount);
+            csv.append("2024-01-15 14:30:25,Leader ").append(i).append(",Ja,Speelclub,Rakkers,Toppers,Ja,\"")
+                    .append(preferred).append("\",Ja,\"").append(unwanted).append("\",").append(i % 4).append('\n');
+        }
+
+        RosterImport roster = rosterImporter.read(new StringReader(csv.toString()), RosterImporter.defaultGroups());
+
+        List<Leader> leaders = roster.schedule().getLeaders();
+        assertThat(leaders).hasSize(leaderCount);
+        assertThat(roster.unmatchedNames()).isEmpty();
+        for (int i = 0; i < leaderCount; i++) {
+            Leader leader = leaders.get(i);
+            assertThat(leader.getPreferredLeaders()).isEqualTo(Set.of(leaders.get((i + 1) % leaderCount)));
+            assertThat(leader.getUnwantedLeaders()).isEqualTo(Set.of(leaders.get((i + 2) % leaderCount)));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package be.sandervl.leaderschedule.rest;
+
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.rest.exception.ScheduleSolverException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RosterResourceTest {
+
+    private final RosterResource rosterResource = new RosterResource(new RosterImporter());
+
+    @Test
+    void groupsAreParsed() {
+        RosterImport roster = rosterResource.importRoster(csv(), "Speelclub:2:4, Rakkers:0:0");
+        assertThat(roster.schedule().getGroups().stream().map(Group::getName).toList()).containsExactly("Speelclub", "Rakkers");
+        assertThat(roster.schedule().getGroups().get(0).getMaximumLeaders()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidGroupBoundsAreRejected() {
+        for (String groups : new String[] { "Speelclub:3:2", "Speelclub:-1:2", "Speelclub:1:-1", "Speelclub:1", "Speelclub:a:2" }) {
+            assertThatThrownBy(() -> rosterResource.importRoster(csv(), groups))
+                    .isInstanceOf(ScheduleSolverException.class)
+                    .hasMessageContaining(groups);
+        }
+    }
+
+    private static InputStream csv() {
+        String csv = "Naam,Ik wil volgend jaar in leiding staan,experience\nJan Janssen,Ja,2\n";
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
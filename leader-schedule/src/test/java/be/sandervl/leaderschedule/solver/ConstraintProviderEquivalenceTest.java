@@ -0,0 +1,149 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.core.api.score.analysis.ConstraintAnalysis;
+import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
+import ai.timefold.solver.core.api.score.buildin.bendable.BendableScore;
+import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
+import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link IncrementalLeaderScheduleConstraintProvider} must score every schedule like the reference
+ * {@link LeaderScheduleConstraintProvider}, constraint by constraint, on seeded random schedules with
+ * empty groups, unassigned leaders, self-references and references to leaders outside the schedule.
+ */
+class ConstraintProviderEquivalenceTest {
+
+    private static final int SCHEDULE_COUNT = 500;
+
+    private final SolutionManager<LeaderScheduleSolution, BendableScore> groupScan =
+            SolutionManager.create(SolverFactory.create(solverConfig(LeaderScheduleConstraintProvider.class)));
+    private final SolutionManager<LeaderScheduleSolution, BendableScore> incremental =
+            SolutionManager.create(SolverFactory.create(solverConfig(IncrementalLeaderScheduleConstraintProvider.class)));
+
+    @Test
+    void randomSchedulesScoreTheSame() {
+        for (long seed = 0; seed < SCHEDULE_COUNT; seed++) {
+            LeaderScheduleSolution schedule = randomSchedule(new Random(seed));
+            BendableScore expected = groupScan.update(schedule);
+            assertThat(incremental.update(schedule)).as("Score of seed %d", seed).isEqualTo(expected);
+            // Only an initialized solution can be analyzed, so schedules with unassigned leaders are compared by their total.
+            if (expected.isSolutionInitialized()) {
+                assertThat(scoreByConstraint(incremental.analyze(schedule, ScoreAnalysisFetchPolicy.FETCH_SHALLOW)))
+                        .as("Constraint scores of seed %d", seed)
+                        .isEqualTo(scoreByConstraint(groupScan.analyze(schedule, ScoreAnalysisFetchPolicy.FETCH_SHALLOW)));
+            }
+        }
+    }
+
+    @Test
+    void incrementalScoreMatchesFullScoreWhileSolving() {
+        // FULL_ASSERT recalculates the score from scratch after every move and fails on any difference,
+        // which also catches group aggregates that fall behind their leaders.
+        SolverConfig solverConfig = solverConfig(IncrementalLeaderScheduleConstraintProvider.class)
+                .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+                .withTerminationSpentLimit(Duration.ofSeconds(2));
+        for (long seed = 0; seed < 3; seed++) {
+            LeaderScheduleSolution schedule = randomSchedule(new Random(seed));
+            LeaderScheduleSolution solution = SolverFactory.<LeaderScheduleSolution>create(solverConfig.copyConfig().withRandomSeed(seed))
+                    .buildSolver()
+                    .solve(schedule);
+            assertThat(solution.getScore()).as("Score of seed %d", seed).isEqualTo(groupScan.update(solution));
+        }
+    }
+
+    private static SolverConfig solverConfig(Class<? extends ConstraintProvider> constraintProviderClass) {
+        return new SolverConfig()
+                .withSolutionClass(LeaderScheduleSolution.class)
+                .withEntityClasses(Group.class, Leader.class)
+                .withConstraintProviderClass(constraintProviderClass);
+    }
+
+    private static Map<String, BendableScore> scoreByConstraint(ScoreAnalysis<BendableScore> analysis) {
+        Map<String, BendableScore> scores = new HashMap<>();
+        for (ConstraintAnalysis<BendableScore> constraintAnalysis : analysis.constraintAnalyses()) {
+            scores.put(constraintAnalysis.constraintName(), constraintAnalysis.score());
+        }
+        return scores;
+    }
+
+    private static LeaderScheduleSolution randomSchedule(Random random) {
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0, count = 1 + random.nextInt(6); i < count; i++) {
+            int minimumLeaders = random.nextInt(4);
+            groups.add(new Group("Group " + i, minimumLeaders, minimumLeaders + random.nextInt(4) - 1));
+        }
+        List<Leader> leaders = new ArrayList<>();
+        for (int i = 0, count = random.nextInt(30); i < count; i++) {
+            leaders.add(new Leader("Leader " + i, random.nextInt(3)));
+        }
+        // Preferences may name a leader that isn't part of the schedule.
+        var outsider = new Leader("Outsider", 1);
+        for (Leader leader : leaders) {
+            leader.setGroupAffinityMap(random.nextInt(5) == 0 ? null : randomAffinities(random, groups));
+            leader.setPreferredLeaders(randomLeaders(random, leader, leaders, outsider));
+            leader.setUnwantedLeaders(randomLeaders(random, leader, leaders, outsider));
+            if (random.nextInt(6) != 0) {
+                Group group = groups.get(random.nextInt(groups.size()));
+                group.getLeaders().add(leader);
+                leader.setGroup(group);
+            }
+        }
+        var schedule = new LeaderScheduleSolution();
+        schedule.setGroups(groups);
+        schedule.setLeaders(leaders);
+        schedule.compileProblemFacts();
+        return schedule;
+    }
+
+    private static Map<String, Affinity> randomAffinities(Random random, List<Group> groups) {
+        Affinity[] affinities = Affinity.values();
+        Map<String, Affinity> affinityMap = new LinkedHashMap<>();
+        for (Group group : groups) {
+            if (random.nextBoolean()) {
+                affinityMap.put(group.getName(), affinities[random.nextInt(affinities.length)]);
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            affinityMap.put("No such group", Affinity.HIGH);
+        }
+        return affinityMap;
+    }
+
+    private static Set<Leader> randomLeaders(Random random, Leader self, List<Leader> leaders, Leader outsider) {
+        if (random.nextInt(4) == 0) {
+            return null;
+        }
+        Set<Leader> result = new LinkedHashSet<>();
+        for (int i = 0, count = random.nextInt(4); i < count; i++) {
+            result.add(leaders.get(random.nextInt(leaders.size())));
+        }
+        if (random.nextInt(8) == 0) {
+            result.add(self);
+        }
+        if (random.nextInt(8) == 0) {
+            result.add(outsider);
+        }
+        return result;
+    }
+}
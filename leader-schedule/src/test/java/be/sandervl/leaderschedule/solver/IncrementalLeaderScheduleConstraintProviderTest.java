@@ -0,0 +1,148 @@
+package be.sandervl.leaderschedule.solver;
+
+import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import be.sandervl.leaderschedule.domain.LeaderScheduleSolution;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class IncrementalLeaderScheduleConstraintProviderTest {
+
+    private final ConstraintVerifier<IncrementalLeaderScheduleConstraintProvider, LeaderScheduleSolution> constraintVerifier =
+            ConstraintVerifier.build(new IncrementalLeaderScheduleConstraintProvider(), LeaderScheduleSolution.class,
+                    Group.class, Leader.class);
+
+    @Test
+    void minimumNumberOfLeaders() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::minimumNumberOfLeaders)
+                .givenSolution(schedule(List.of(ann, bob),
+                        group("Speelclub", 2, 4, ann),
+                        group("Rakkers", 1, 4, bob),
+                        group("Aspiranten", 0, 4)))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void maximumNumberOfLeaders() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        Leader cas = new Leader("Cas", 2);
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::maximumNumberOfLeaders)
+                .givenSolution(schedule(List.of(ann, bob, cas),
+                        group("Speelclub", 0, 1, ann, bob),
+                        group("Rakkers", 0, 1, cas)))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void noUnwantedLeaderPenalizesEveryGroupOnce() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        Leader cas = new Leader("Cas", 2);
+        Leader dirk = new Leader("Dirk", 2);
+        ann.setUnwantedLeaders(Set.of(bob));
+        bob.setUnwantedLeaders(Set.of(ann));
+        // Apart, so no penalty.
+        cas.setUnwantedLeaders(Set.of(dirk));
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::noUnwantedLeader)
+                .givenSolution(schedule(List.of(ann, bob, cas, dirk),
+                        group("Speelclub", 0, 4, ann, bob, cas),
+                        group("Rakkers", 0, 4, dirk)))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void noUnwantedLeaderIgnoresUnassignedLeaders() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        ann.setUnwantedLeaders(Set.of(bob));
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::noUnwantedLeader)
+                .givenSolution(schedule(List.of(ann, bob), group("Speelclub", 0, 4)))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void atLeastExperience() {
+        Leader ann = new Leader("Ann", 0);
+        Leader bob = new Leader("Bob", 1);
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::atLeastExperience)
+                .givenSolution(schedule(List.of(ann, bob),
+                        group("Speelclub", 0, 4, ann),
+                        group("Rakkers", 0, 4, bob),
+                        group("Aspiranten", 0, 4)))
+                .penalizesBy(2);
+    }
+
+    @Test
+    void balanceExperience() {
+        Leader ann = new Leader("Ann", 1);
+        Leader bob = new Leader("Bob", 1);
+        Leader cas = new Leader("Cas", 1);
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::balanceExperience)
+                .givenSolution(schedule(List.of(ann, bob, cas),
+                        group("Speelclub", 0, 4, ann),
+                        group("Rakkers", 0, 4, bob, cas)))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void maximizeGroupAffinity() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        Leader cas = new Leader("Cas", 2);
+        ann.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH, "Rakkers", Affinity.LOW));
+        bob.setGroupAffinityMap(Map.of("Speelclub", Affinity.LOW));
+        // Only the affinity for the group a leader is in counts.
+        cas.setGroupAffinityMap(Map.of("Speelclub", Affinity.MEDIUM));
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::maximizeGroupAffinity)
+                .givenSolution(schedule(List.of(ann, bob, cas),
+                        group("Speelclub", 0, 4, ann, bob),
+                        group("Rakkers", 0, 4, cas)))
+                .rewardsWith(4);
+    }
+
+    @Test
+    void preferredLeader() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        Leader cas = new Leader("Cas", 2);
+        Leader dirk = new Leader("Dirk", 2);
+        Leader outsider = new Leader("Outsider", 2);
+        ann.setPreferredLeaders(Set.of(bob, cas));
+        // A leader in the same group as themselves.
+        bob.setPreferredLeaders(Set.of(bob, outsider));
+        // Unassigned, so never with anyone.
+        dirk.setPreferredLeaders(Set.of(dirk));
+        constraintVerifier.verifyThat(IncrementalLeaderScheduleConstraintProvider::preferredLeader)
+                .givenSolution(schedule(List.of(ann, bob, cas, dirk),
+                        group("Speelclub", 0, 4, ann, bob),
+                        group("Rakkers", 0, 4, cas)))
+                .rewardsWith(2);
+    }
+
+    private static Group group(String name, int minimumLeaders, int maximumLeaders, Leader... leaders) {
+        var group = new Group(name, minimumLeaders, maximumLeaders);
+        group.setLeaders(new ArrayList<>(List.of(leaders)));
+        for (Leader leader : leaders) {
+            leader.setGroup(group);
+        }
+        return group;
+    }
+
+    private static LeaderScheduleSolution schedule(List<Leader> leaders, Group... groups) {
+        var schedule = new LeaderScheduleSolution();
+        schedule.setLeaders(leaders);
+        schedule.setGroups(List.of(groups));
+        // Sets the group aggregates too, the constraint verifier doesn't run variable listeners.
+        schedule.compileProblemFacts();
+        return schedule;
+    }
+}
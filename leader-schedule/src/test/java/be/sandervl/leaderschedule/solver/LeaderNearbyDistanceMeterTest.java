@@ -0,0 +1,52 @@
+package be.sandervl.leaderschedule.solver;
+
+import be.sandervl.leaderschedule.domain.Affinity;
+import be.sandervl.leaderschedule.domain.Group;
+import be.sandervl.leaderschedule.domain.Leader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderNearbyDistanceMeterTest {
+
+    private final LeaderNearbyDistanceMeter distanceMeter = new LeaderNearbyDistanceMeter();
+
+    @Test
+    void groupsAreNearerTheHigherTheAffinity() {
+        Leader ann = new Leader("Ann", 2);
+        ann.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH, "Rakkers", Affinity.LOW));
+        double speelclub = distanceMeter.getNearbyDistance(ann, new Group("Speelclub", 0, 4));
+        double rakkers = distanceMeter.getNearbyDistance(ann, new Group("Rakkers", 0, 4));
+        double aspiranten = distanceMeter.getNearbyDistance(ann, new Group("Aspiranten", 0, 4));
+        assertThat(speelclub).isZero();
+        assertThat(speelclub).isLessThan(rakkers);
+        assertThat(rakkers).isLessThan(aspiranten);
+    }
+
+    @Test
+    void preferredLeadersAreNearestAndUnwantedLeadersFarthest() {
+        Leader ann = new Leader("Ann", 2);
+        Leader bob = new Leader("Bob", 2);
+        Leader cas = new Leader("Cas", 2);
+        Leader dirk = new Leader("Dirk", 2);
+        Leader els = new Leader("Els", 2);
+        // Either side of a relation counts.
+        bob.setPreferredLeaders(Set.of(ann));
+        ann.setUnwantedLeaders(Set.of(dirk));
+        ann.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH, "Rakkers", Affinity.MEDIUM));
+        cas.setGroupAffinityMap(Map.of("Speelclub", Affinity.HIGH));
+        els.setGroupAffinityMap(Map.of("Rakkers", Affinity.HIGH));
+        double preferred = distanceMeter.getNearbyDistance(ann, bob);
+        double sameFavourite = distanceMeter.getNearbyDistance(ann, cas);
+        double otherFavourite = distanceMeter.getNearbyDistance(ann, els);
+        double unwanted = distanceMeter.getNearbyDistance(ann, dirk);
+        assertThat(preferred).isZero();
+        assertThat(preferred).isLessThan(sameFavourite);
+        assertThat(sameFavourite).isLessThan(otherFavourite);
+        assertThat(otherFavourite).isLessThan(unwanted);
+        assertThat(distanceMeter.getNearbyDistance(dirk, ann)).isEqualTo(unwanted);
+    }
+}